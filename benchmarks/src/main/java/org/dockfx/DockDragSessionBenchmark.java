@@ -0,0 +1,156 @@
+/**
+ * @file DockDragSessionBenchmark.java
+ * @brief Benchmark of the work done for every mouse sample of a drag.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+/**
+ * Benchmark of {@link DockDragSession#process()}, the work done once per pulse for the latest mouse
+ * sample of a drag, with the default properties of the title bar: coalescing on, content picking
+ * and outline dragging off. A floating dock node is dragged back and forth across a dock pane of
+ * {@link #DOCKED} docked nodes, so the samples cross between the docked nodes and the indicators
+ * follow them. The samples are processed on the JavaFX application thread in batches of
+ * {@link #SAMPLES} so that handing the batch to the thread is amortized. Run it on a display with
+ * the GC profiler to see the allocation per sample, after installing DockFX:
+ *
+ * <pre>
+ * mvn install
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar DockDragSessionBenchmark -prof gc
+ * </pre>
+ *
+ * @since DockFX 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DockDragSessionBenchmark {
+  /**
+   * How many nodes are docked in the dock pane.
+   */
+  private static final int DOCKED = 8;
+  /**
+   * How many mouse samples are processed per invocation.
+   */
+  private static final int SAMPLES = 100;
+
+  /**
+   * The stage showing the dock pane.
+   */
+  private Stage stage;
+  /**
+   * The dock node being dragged.
+   */
+  private DockNode dragged;
+  /**
+   * The drag session of the dragged dock node.
+   */
+  private DockDragSession session;
+  /**
+   * The screen bounds of the dock pane the samples move across.
+   */
+  private double minX, minY, width, height;
+
+  @Setup
+  public void setup() throws Exception {
+    FXBenchmarks.startToolkit();
+
+    FXBenchmarks.runAndWait(new Runnable() {
+      @Override
+      public void run() {
+        DockPane.initializeDefaultUserAgentStylesheet();
+        DockPane dockPane = new DockPane();
+        for (int i = 0; i < DOCKED; i++) {
+          new DockNode(new Pane(), "Docked " + i).dock(dockPane,
+              i % 2 == 0 ? DockPos.RIGHT : DockPos.BOTTOM);
+        }
+        dragged = new DockNode(new Pane(), "Dragged");
+        dragged.dock(dockPane, DockPos.LEFT);
+
+        stage = new Stage();
+        stage.setScene(new Scene(dockPane, 1024, 768));
+        stage.setX(0);
+        stage.setY(0);
+        stage.show();
+
+        dragged.setFloating(true);
+        Bounds bounds = dockPane.localToScreen(dockPane.getLayoutBounds());
+        minX = bounds.getMinX();
+        minY = bounds.getMinY();
+        width = bounds.getWidth();
+        height = bounds.getHeight();
+
+        session = new DockDragSession(dragged.getDockTitleBar());
+        session.begin(DockWindowRegistry.getWindows(), 10, 10);
+      }
+    });
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    FXBenchmarks.runAndWait(new Runnable() {
+      @Override
+      public void run() {
+        session.end();
+        dragged.close();
+        stage.hide();
+      }
+    });
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SAMPLES)
+  public void process() throws Exception {
+    FXBenchmarks.runAndWait(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < SAMPLES; i++) {
+          // a diagonal sweep across the dock pane and back
+          double t = (double) (i < SAMPLES / 2 ? i : SAMPLES - i) / (SAMPLES / 2);
+          double screenX = minX + t * width, screenY = minY + t * height;
+          session.drag(10, 10, screenX, screenY);
+          session.process();
+        }
+      }
+    });
+  }
+}
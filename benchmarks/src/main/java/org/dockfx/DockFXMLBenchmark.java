@@ -0,0 +1,113 @@
+/**
+ * @file DockFXMLBenchmark.java
+ * @brief Benchmark of loading the contents of a dock node from an FXML document.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.fxml.FXMLLoader;
+
+/**
+ * Benchmark of loading the contents of a dock node from the FXML document of the demo, with and
+ * without the {@link DockFXMLCache}. The {@code load} benchmarks are the whole cost of a dock node's
+ * contents, which is dominated by FXMLLoader parsing and instantiating the document either way. The
+ * {@code read} benchmarks isolate the part the cache saves, reading the document from the jar.
+ * Run it after installing DockFX:
+ *
+ * <pre>
+ * mvn install
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar DockFXMLBenchmark -prof gc
+ * </pre>
+ *
+ * @since DockFX 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DockFXMLBenchmark {
+  /**
+   * The resource path of the document, relative to the DockFX package.
+   */
+  private static final String PATH = "demo/LoginForm.fxml";
+
+  @Setup
+  public void setup() throws Exception {
+    // the controls of the document need the toolkit
+    FXBenchmarks.startToolkit();
+    DockFXMLCache.clear();
+  }
+
+  @Benchmark
+  public Object loadUncached() throws IOException {
+    FXMLLoader loader = new FXMLLoader();
+    InputStream in = DockNode.class.getResourceAsStream(PATH);
+    try {
+      return loader.load(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  @Benchmark
+  public Object loadCached() {
+    return DockNode.loadNode(PATH).getRoot();
+  }
+
+  @Benchmark
+  public long readUncached() throws IOException {
+    return drain(DockNode.class.getResourceAsStream(PATH));
+  }
+
+  @Benchmark
+  public long readCached() throws IOException {
+    return drain(DockFXMLCache.open(PATH));
+  }
+
+  private static long drain(InputStream in) throws IOException {
+    try {
+      byte[] buffer = new byte[8192];
+      long total = 0;
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        total += read;
+      }
+      return total;
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * @file FXBenchmarks.java
+ * @brief Class starting the JavaFX toolkit for the benchmarks.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+
+/**
+ * Starts the JavaFX toolkit once for all benchmarks of a JVM and runs code on the JavaFX
+ * application thread.
+ *
+ * @since DockFX 0.2
+ */
+final class FXBenchmarks {
+  /**
+   * Released once the JavaFX toolkit has started.
+   */
+  private static final CountDownLatch started = new CountDownLatch(1);
+  /**
+   * Whether the toolkit is being started.
+   */
+  private static boolean starting = false;
+
+  /**
+   * The application that only starts the JavaFX toolkit.
+   */
+  public static class Toolkit extends Application {
+    @Override
+    public void start(Stage primaryStage) {
+      Platform.setImplicitExit(false);
+      started.countDown();
+    }
+  }
+
+  private FXBenchmarks() {}
+
+  /**
+   * Start the JavaFX toolkit unless it has already been started and wait for it.
+   */
+  static void startToolkit() throws InterruptedException {
+    synchronized (FXBenchmarks.class) {
+      if (!starting) {
+        starting = true;
+        Thread launcher = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            Application.launch(Toolkit.class);
+          }
+        }, "DockFX benchmark launcher");
+        launcher.setDaemon(true);
+        launcher.start();
+      }
+    }
+    started.await();
+  }
+
+  /**
+   * Run the code on the JavaFX application thread and wait for it to finish.
+   */
+  static void runAndWait(Runnable runnable) throws Exception {
+    FutureTask<Void> task = new FutureTask<Void>(runnable, null);
+    Platform.runLater(task);
+    task.get();
+  }
+}
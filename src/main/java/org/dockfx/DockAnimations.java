@@ -0,0 +1,126 @@
+/**
+ * @file DockAnimations.java
+ * @brief Class managing the lifecycle of the animations used by DockFX.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.Animation;
+
+/**
+ * Lifecycle of the animations used by DockFX. An animation is activated when the node it animates
+ * becomes visible and deactivated as soon as it is hidden again so that no animation keeps the pulse
+ * running while nothing is being dragged. In low power mode active animations are not played at
+ * all. Only animations that were stopped here are played again, an animation that was stopped
+ * through its public accessor stays stopped.
+ *
+ * @since DockFX 0.2
+ */
+final class DockAnimations {
+  /**
+   * The animations that are currently active whether or not they are playing.
+   */
+  private static final List<Animation> active = new ArrayList<Animation>();
+  /**
+   * The animations that have ever been activated.
+   */
+  private static final List<Animation> known = new ArrayList<Animation>();
+  /**
+   * The animations that were stopped here and are to be played again.
+   */
+  private static final List<Animation> paused = new ArrayList<Animation>();
+  /**
+   * Whether animations are disabled entirely.
+   */
+  private static boolean lowPowerMode = false;
+
+  private DockAnimations() {}
+
+  /**
+   * Play the animation unless low power mode is enabled, if it is activated for the first time or
+   * was stopped here when it was deactivated. An animation that is not played because of low power
+   * mode is played once low power mode is disabled while it is still active.
+   *
+   * @param animation The animation whose node has become visible.
+   */
+  static void activate(Animation animation) {
+    if (!active.contains(animation)) {
+      active.add(animation);
+    }
+    if (!known.contains(animation)) {
+      known.add(animation);
+      paused.add(animation);
+    }
+    if (!lowPowerMode && paused.remove(animation)
+        && animation.getStatus() != Animation.Status.RUNNING) {
+      animation.play();
+    }
+  }
+
+  /**
+   * Stop the animation, remembering to play it again on the next activation if it was playing.
+   *
+   * @param animation The animation whose node has been hidden.
+   */
+  static void deactivate(Animation animation) {
+    active.remove(animation);
+    pause(animation);
+  }
+
+  /**
+   * Whether animations are disabled entirely.
+   *
+   * @return Whether animations are disabled entirely.
+   */
+  static boolean isLowPowerMode() {
+    return lowPowerMode;
+  }
+
+  /**
+   * Disable or enable all animations, stopping the playing active animations or playing again the
+   * active animations that were stopped here.
+   *
+   * @param lowPowerMode Whether animations are disabled entirely.
+   */
+  static void setLowPowerMode(boolean lowPowerMode) {
+    DockAnimations.lowPowerMode = lowPowerMode;
+    for (int i = 0; i < active.size(); i++) {
+      Animation animation = active.get(i);
+      if (lowPowerMode) {
+        pause(animation);
+      } else if (paused.remove(animation)) {
+        animation.play();
+      }
+    }
+  }
+
+  /**
+   * Stop the animation if it is playing and remember that it was stopped here.
+   */
+  private static void pause(Animation animation) {
+    if (animation.getStatus() == Animation.Status.RUNNING) {
+      animation.stop();
+      if (!paused.contains(animation)) {
+        paused.add(animation);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * @file DockChromeMetrics.java
+ * @brief Class caching the metrics of the chrome around floating dock nodes.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.application.Application;
+import javafx.css.PseudoClass;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.layout.BorderPane;
+
+/**
+ * Cache of the insets of the border pane around a floating dock node, which include the padding
+ * that makes room for its drop shadow. The insets only depend on the stylesheets, the style classes,
+ * the inline style and the pseudo class state of the border pane, so they are computed once for
+ * every combination of these on an empty border pane. This way floating a dock node does not have
+ * to apply the CSS of its whole contents just to position the stage, and the contents are styled by
+ * the CSS pass of the stage being shown.
+ *
+ * @since DockFX 0.2
+ */
+final class DockChromeMetrics {
+  /**
+   * The cached insets by the state of the border pane they were computed for.
+   */
+  private static final Map<String, Insets> borderInsets = new HashMap<String, Insets>();
+
+  private DockChromeMetrics() {}
+
+  /**
+   * The insets the border pane will have once its CSS has been applied.
+   *
+   * @param borderPane The border pane parenting a floating dock node, must be in a scene.
+   * @return The insets of the border pane.
+   */
+  static Insets getBorderInsets(BorderPane borderPane) {
+    Scene scene = borderPane.getScene();
+    String key = Application.getUserAgentStylesheet() + '|' + scene.getStylesheets() + '|'
+        + borderPane.getStylesheets() + '|' + borderPane.getStyleClass() + '|'
+        + borderPane.getStyle() + '|' + borderPane.getPseudoClassStates();
+
+    Insets insets = borderInsets.get(key);
+    if (insets == null) {
+      BorderPane probe = new BorderPane();
+      probe.getStylesheets().setAll(borderPane.getStylesheets());
+      probe.getStyleClass().setAll(borderPane.getStyleClass());
+      probe.setStyle(borderPane.getStyle());
+      for (PseudoClass pseudoClass : borderPane.getPseudoClassStates()) {
+        probe.pseudoClassStateChanged(pseudoClass, true);
+      }
+
+      Scene probeScene = new Scene(probe);
+      probeScene.getStylesheets().setAll(scene.getStylesheets());
+      probe.applyCss();
+
+      insets = probe.getInsets();
+      borderInsets.put(key, insets);
+    }
+    return insets;
+  }
+
+  /**
+   * Forget all cached insets, needed whenever a user agent stylesheet is added.
+   */
+  static void clear() {
+    borderInsets.clear();
+  }
+}
@@ -0,0 +1,420 @@
+/**
+ * @file DockDragSession.java
+ * @brief Class implementing the state of a dock node being dragged by its title bar.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.List;
+
+import org.dockfx.events.DockEvent;
+import org.dockfx.events.DockNodeEvent;
+import org.dockfx.events.DockNodeEventListener;
+
+import javafx.animation.AnimationTimer;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.Region;
+import javafx.scene.transform.Transform;
+import javafx.stage.Popup;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * The state of a dock node being dragged by its title bar. A title bar owns a single session that
+ * is reused for every drag. Dock enter and exit events are only created when the target under the
+ * mouse changes and each event is created for its target directly instead of being copied for it.
+ * Picking the contents under the mouse transforms the coordinates by hand, so the only allocation
+ * of a mouse sample that does not change the target is its dock over event.
+ *
+ * @since DockFX 0.2
+ */
+final class DockDragSession {
+  /**
+   * The title bar that is the source of the dock events of this session.
+   */
+  private final DockTitleBar titleBar;
+  /**
+   * The current node being dragged over so we can keep track of enter/exit events.
+   */
+  private Node dragNode;
+  /**
+   * The index of the dock panes and dock nodes that may be dropped on during the current drag.
+   */
+  private DockTargetIndex dockTargetIndex;
+  /**
+   * The offset of the mouse from the origin of the dock node when the drag started.
+   */
+  private double offsetX, offsetY;
+  /**
+   * The latest mouse sample of the current drag in local and screen coordinates.
+   */
+  private double x, y, screenX, screenY;
+  /**
+   * Whether a mouse sample was received that has not been processed yet.
+   */
+  private boolean pending = false;
+  /**
+   * Whether mouse samples are processed once per pulse instead of as they are received.
+   */
+  private boolean coalescing = false;
+  /**
+   * Whether the contents of the dock target under the mouse are traversed to pick the event target.
+   */
+  private boolean contentPicking = false;
+  /**
+   * Whether a translucent outline follows the mouse instead of the floating stage.
+   */
+  private boolean outline = false;
+  /**
+   * Whether the dock node was docked by the dock released event of this session.
+   */
+  private boolean dropped = false;
+  /**
+   * Keeps track of whether the dock node was docked by the dock released event.
+   */
+  private final DockNodeEventListener dropListener = new DockNodeEventListener() {
+    @Override
+    public void dockNodeDocked(DockNodeEvent e) {
+      dropped = true;
+    }
+  };
+  /**
+   * The popup showing the outline of the dock node during outline drags. Only one drag can happen
+   * at a time so a single popup is shared by all sessions.
+   */
+  private static Popup outlinePopup;
+  /**
+   * The region sized to the dock node inside the outline popup.
+   */
+  private static Region outlineRegion;
+  /**
+   * The timer that processes the latest mouse sample once per pulse while coalescing.
+   */
+  private final AnimationTimer timer = new AnimationTimer() {
+    @Override
+    public void handle(long now) {
+      if (pending) {
+        process();
+      }
+    }
+  };
+
+  /**
+   * Creates a new idle drag session for the title bar.
+   *
+   * @param titleBar The title bar that is the source of the dock events of this session.
+   */
+  DockDragSession(DockTitleBar titleBar) {
+    this.titleBar = titleBar;
+  }
+
+  /**
+   * Whether this session is between a begin and a release.
+   *
+   * @return Whether this session is between a begin and a release.
+   */
+  boolean isActive() {
+    return dockTargetIndex != null;
+  }
+
+  /**
+   * Start dragging the dock node of the title bar.
+   *
+   * @param windows The windows that may receive the dock events of this drag from the topmost to
+   *        the bottommost.
+   * @param offsetX The horizontal offset of the mouse from the origin of the dock node.
+   * @param offsetY The vertical offset of the mouse from the origin of the dock node.
+   */
+  void begin(List<? extends Window> windows, double offsetX, double offsetY) {
+    end();
+
+    DockNode dockNode = titleBar.getDockNode();
+    // a docked node is still shown in the layout during an outline drag
+    // and its stage, if it has an old one, is not showing
+    this.dockTargetIndex = new DockTargetIndex(windows,
+        dockNode.isFloating() ? dockNode.getStage() : null, dockNode);
+    this.offsetX = offsetX;
+    this.offsetY = offsetY;
+    this.coalescing = titleBar.isCoalescingDrag();
+    this.contentPicking = titleBar.isContentPicking();
+    this.outline = titleBar.isOutlineDrag();
+    // create the shared indicator overlays before the first dock pane is
+    // entered so the first enter does not stall building them
+    DockIndicatorController.getInstance();
+    if (outline) {
+      showOutline();
+    }
+    if (coalescing) {
+      timer.start();
+    }
+  }
+
+  /**
+   * Record the latest mouse sample and process it now or on the next pulse when coalescing.
+   *
+   * @param x The x coordinate of the mouse relative to the source of the mouse event.
+   * @param y The y coordinate of the mouse relative to the source of the mouse event.
+   * @param screenX The x coordinate of the mouse in screen coordinates.
+   * @param screenY The y coordinate of the mouse in screen coordinates.
+   */
+  void drag(double x, double y, double screenX, double screenY) {
+    if (!isActive()) {
+      return;
+    }
+    this.x = x;
+    this.y = y;
+    this.screenX = screenX;
+    this.screenY = screenY;
+    pending = true;
+    if (!coalescing) {
+      process();
+    }
+  }
+
+  /**
+   * Process any pending mouse sample, fire the dock released event at the target under the mouse
+   * and end this session.
+   *
+   * @param x The x coordinate of the mouse relative to the source of the mouse event.
+   * @param y The y coordinate of the mouse relative to the source of the mouse event.
+   * @param screenX The x coordinate of the mouse in screen coordinates.
+   * @param screenY The y coordinate of the mouse in screen coordinates.
+   */
+  void release(double x, double y, double screenX, double screenY) {
+    if (!isActive()) {
+      return;
+    }
+    // the release must be handled with the stage where the last sample put it
+    if (pending) {
+      process();
+    }
+    this.x = x;
+    this.y = y;
+    this.screenX = screenX;
+    this.screenY = screenY;
+
+    DockNode dockNode = titleBar.getDockNode();
+    dropped = false;
+    dockNode.addEventListener(dropListener);
+    Node target = pick();
+    if (target != null) {
+      fire(target, DockEvent.DOCK_RELEASED, dockNode);
+    }
+    dockNode.removeEventListener(dropListener);
+
+    // the real stage is only moved or created once at the end of an outline drag
+    if (outline && !dropped) {
+      double outlineX = screenX - offsetX, outlineY = screenY - offsetY;
+      if (dockNode.isFloating()) {
+        Stage stage = dockNode.getStage();
+        Insets insetsDelta = dockNode.getBorderPane().getInsets();
+        stage.setX(outlineX - insetsDelta.getLeft());
+        stage.setY(outlineY - insetsDelta.getTop());
+      } else {
+        // the stage is positioned by floating the node the same way a live
+        // drag does, translated from where the node is docked to the outline,
+        // so decorations and the hidden title bar are accounted for
+        Point2D origin = dockNode.localToScreen(0, 0);
+        Point2D translation = origin != null
+            ? new Point2D(outlineX - origin.getX(), outlineY - origin.getY()) : Point2D.ZERO;
+        if (!dockNode.isCustomTitleBar() && dockNode.isDecorated()) {
+          translation = translation.add(0, titleBar.getHeight());
+        }
+        dockNode.setFloating(true, translation);
+      }
+    }
+
+    end();
+  }
+
+  /**
+   * Stop processing mouse samples and release the drop target index.
+   */
+  void end() {
+    timer.stop();
+    pending = false;
+    dragNode = null;
+    if (outlinePopup != null && outlinePopup.isShowing()) {
+      outlinePopup.hide();
+    }
+    if (dockTargetIndex != null) {
+      dockTargetIndex.dispose();
+      dockTargetIndex = null;
+    }
+  }
+
+  /**
+   * Show the outline popup over the dock node, creating the popup on the first outline drag.
+   */
+  private void showOutline() {
+    if (outlinePopup == null) {
+      outlineRegion = new Region();
+      outlineRegion.setMouseTransparent(true);
+      outlineRegion.getStyleClass().add("dock-drag-outline");
+
+      outlinePopup = new Popup();
+      outlinePopup.setAutoFix(false);
+      outlinePopup.getContent().add(outlineRegion);
+    }
+
+    DockNode dockNode = titleBar.getDockNode();
+    outlineRegion.setPrefSize(dockNode.getWidth(), dockNode.getHeight());
+    Point2D origin = dockNode.localToScreen(0, 0);
+    if (origin != null) {
+      outlinePopup.show(dockNode, origin.getX(), origin.getY());
+    }
+  }
+
+  /**
+   * Move the floating stage or the outline to the latest mouse sample and fire the dock events for
+   * the target under it. This is called once per pulse while coalescing.
+   */
+  void process() {
+    pending = false;
+
+    if (outline) {
+      outlinePopup.setX(screenX - offsetX);
+      outlinePopup.setY(screenY - offsetY);
+    } else {
+      DockNode dockNode = titleBar.getDockNode();
+      Stage stage = dockNode.getStage();
+      Insets insetsDelta = dockNode.getBorderPane().getInsets();
+
+      // dragging this way makes the interface more responsive in the event
+      // the system is lagging as is the case with most current JavaFX
+      // implementations on Linux
+      stage.setX(screenX - offsetX - insetsDelta.getLeft());
+      stage.setY(screenY - offsetY - insetsDelta.getTop());
+    }
+
+    // the index never contains this title bar's own stage because
+    // this title bar does not need to receive its own events
+    // though users of this library may want to know when their
+    // dock node is being dragged by subclassing it or attaching
+    // an event listener in which case a new event can be defined
+    Node target = pick();
+
+    if (target != dragNode) {
+      if (target != null) {
+        fire(target, DockEvent.DOCK_ENTER, null);
+      }
+      if (dragNode != null) {
+        // fire the dock exit after the enter so listeners
+        // can actually keep track of the node we
+        // are currently over and know when we
+        // aren't over any which DOCK_OVER
+        // does not provide
+        fire(dragNode, DockEvent.DOCK_EXIT, null);
+      }
+      dragNode = target;
+    }
+
+    if (target != null) {
+      fire(target, DockEvent.DOCK_OVER, null);
+    }
+  }
+
+  /**
+   * Pick the event target for the latest mouse sample. The dock pane or dock node under the mouse
+   * in the topmost window is found in the drop target index and is the event target unless content
+   * picking is enabled, in which case only its contents are traversed to find the deepest node or
+   * parent with no children that intersects the mouse.
+   *
+   * @return The event target or null if the mouse is not over a dock target.
+   */
+  private Node pick() {
+    Node picked = dockTargetIndex.pick(screenX, screenY);
+    if (!contentPicking) {
+      return picked;
+    }
+    Scene scene = picked != null ? picked.getScene() : null;
+    if (scene == null || scene.getWindow() == null) {
+      return picked;
+    }
+    Window window = scene.getWindow();
+    return pickContent(picked, screenX - window.getX() - scene.getX(),
+        screenY - window.getY() - scene.getY());
+  }
+
+  /**
+   * Find the deepest node or parent with no children below the node that intersects the point.
+   * The point is transformed into the local coordinates of every child by hand so that picking
+   * does not allocate.
+   *
+   * @param picked The node to search below.
+   * @param sceneX The x coordinate of the point in scene coordinates.
+   * @param sceneY The y coordinate of the point in scene coordinates.
+   * @return The deepest node that intersects the point or the node itself if no child does.
+   */
+  static Node pickContent(Node picked, double sceneX, double sceneY) {
+    // RFE for public scene graph traversal API filed but closed:
+    // https://bugs.openjdk.java.net/browse/JDK-8133331
+    while (picked instanceof Parent) {
+      Node child = null;
+      List<Node> children = ((Parent) picked).getChildrenUnmodifiable();
+      for (int i = 0; i < children.size(); i++) {
+        Node node = children.get(i);
+        if (!node.isMouseTransparent() && contains(node, sceneX, sceneY)) {
+          child = node;
+          break;
+        }
+      }
+      // if none of the children contain the mouse or there were no children
+      // the parent is the target to receive the event
+      if (child == null) {
+        break;
+      }
+      picked = child;
+    }
+    return picked;
+  }
+
+  /**
+   * Whether the node contains the point, inverting the 2D part of its local to scene transform.
+   */
+  private static boolean contains(Node node, double sceneX, double sceneY) {
+    Transform transform = node.getLocalToSceneTransform();
+    double det = transform.getMxx() * transform.getMyy() - transform.getMxy() * transform.getMyx();
+    if (det == 0) {
+      return false;
+    }
+    double dx = sceneX - transform.getTx(), dy = sceneY - transform.getTy();
+    double localX = (transform.getMyy() * dx - transform.getMxy() * dy) / det;
+    double localY = (transform.getMxx() * dy - transform.getMyx() * dx) / det;
+    return node.contains(localX, localY);
+  }
+
+  /**
+   * Create a dock event for the latest mouse sample and fire it at the target.
+   *
+   * @param target The target of the dock event.
+   * @param eventType The type of the dock event.
+   * @param contents The contents being dragged, only provided for the released event.
+   */
+  private void fire(Node target, EventType<DockEvent> eventType, Node contents) {
+    // creating the event for its target means the event utilities do not copy it
+    Event.fireEvent(target,
+        new DockEvent(titleBar, target, eventType, x, y, screenX, screenY, null, contents));
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * @file DockFXMLCache.java
+ * @brief Class caching the FXML documents dock node contents are loaded from.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the bytes of the FXML documents dock node contents are loaded from, keyed by the URL of
+ * the resource. A document is read from its resource once, every further dock node of the same type
+ * is loaded from the cached bytes. FXMLLoader can not instantiate a document without parsing it, so
+ * this saves reading the resource, which for a document in a jar means looking it up and inflating
+ * it, but not the parse. Documents loaded from files are read again once the file was modified, and
+ * any document can be invalidated explicitly.
+ *
+ * @since DockFX 0.2
+ */
+final class DockFXMLCache {
+  /**
+   * A cached document and when its file was last modified, 0 if it is not a file.
+   */
+  private static final class Entry {
+    final byte[] bytes;
+    final long lastModified;
+
+    Entry(byte[] bytes, long lastModified) {
+      this.bytes = bytes;
+      this.lastModified = lastModified;
+    }
+  }
+
+  /**
+   * The cached documents by the external form of their URL.
+   */
+  private static final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+  private DockFXMLCache() {}
+
+  /**
+   * Open the FXML document at the resource path, reading the resource only if it is not cached yet
+   * or its file was modified. May be called from any thread.
+   *
+   * @param path The resource path of the FXML document.
+   * @return A stream of the bytes of the document.
+   * @throws IOException If the document can not be read.
+   */
+  static InputStream open(String path) throws IOException {
+    URL url = DockNode.class.getResource(path);
+    if (url == null) {
+      throw new FileNotFoundException(path);
+    }
+    String key = url.toExternalForm();
+    long lastModified = lastModified(url);
+    Entry entry = entries.get(key);
+    if (entry == null || entry.lastModified != lastModified) {
+      entry = new Entry(read(url), lastModified);
+      entries.put(key, entry);
+    }
+    return new ByteArrayInputStream(entry.bytes);
+  }
+
+  /**
+   * Forget the cached document at the resource path so that it is read again when it is next
+   * opened.
+   *
+   * @param path The resource path of the FXML document.
+   */
+  static void invalidate(String path) {
+    URL url = DockNode.class.getResource(path);
+    if (url != null) {
+      entries.remove(url.toExternalForm());
+    }
+  }
+
+  /**
+   * Forget all cached documents.
+   */
+  static void clear() {
+    entries.clear();
+  }
+
+  /**
+   * When the file of the URL was last modified, 0 if the URL is not a file.
+   */
+  private static long lastModified(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return 0;
+    }
+    try {
+      return new File(url.toURI()).lastModified();
+    } catch (URISyntaxException e) {
+      return 0;
+    }
+  }
+
+  private static byte[] read(URL url) throws IOException {
+    InputStream in = url.openStream();
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+}
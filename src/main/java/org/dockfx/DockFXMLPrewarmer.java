@@ -0,0 +1,146 @@
+/**
+ * @file DockFXMLPrewarmer.java
+ * @brief Class loading the classes FXML documents of dock nodes refer to ahead of time.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import javafx.fxml.FXMLLoader;
+
+/**
+ * Loads the classes an FXML document of a dock node refers to ahead of time, so that the first dock
+ * node created from the document does not have to load them. The document is read through the
+ * {@link DockFXMLCache} so it is cached as well. It is only scanned for its imports, its class
+ * elements and its controller, nothing is instantiated and no class is initialized, so no
+ * controller or static initializer runs.
+ *
+ * @since DockFX 0.2
+ */
+final class DockFXMLPrewarmer {
+  /**
+   * The namespace of the FXML specific elements and attributes, followed by its version.
+   */
+  private static final String FX_NAMESPACE = "http://javafx.com/fxml";
+
+  private DockFXMLPrewarmer() {}
+
+  /**
+   * Cache the FXML document at the resource path and load the classes it refers to without
+   * initializing them. Class elements that can not be resolved are skipped, they fail when a dock
+   * node is created.
+   *
+   * @param path The resource path of the FXML document.
+   * @throws IOException If the document can not be read.
+   */
+  static void prewarm(String path) throws IOException {
+    InputStream in = DockFXMLCache.open(path);
+    ClassLoader classLoader = FXMLLoader.getDefaultClassLoader();
+    Map<String, String> classes = new HashMap<String, String>();
+    List<String> packages = new ArrayList<String>();
+    try {
+      XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(in);
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.PROCESSING_INSTRUCTION
+            && "import".equals(reader.getPITarget())) {
+          String name = reader.getPIData().trim();
+          if (name.endsWith(".*")) {
+            packages.add(name.substring(0, name.length() - 2));
+          } else {
+            classes.put(name.substring(name.lastIndexOf('.') + 1), name);
+            load(name, classLoader);
+          }
+        } else if (event == XMLStreamConstants.START_ELEMENT) {
+          String prefix = reader.getPrefix();
+          if (prefix == null || prefix.isEmpty()) {
+            loadElement(reader.getLocalName(), classes, packages, classLoader);
+          }
+          for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (namespace != null && namespace.startsWith(FX_NAMESPACE)
+                && "controller".equals(reader.getAttributeLocalName(i))) {
+              load(reader.getAttributeValue(i), classLoader);
+            }
+          }
+        }
+      }
+      reader.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Load the class of an element, which is either a fully qualified class name, a class name that
+   * was imported or a static property of a class such as {@code GridPane.rowIndex}. Elements that
+   * start with a lower case letter are properties and are skipped.
+   */
+  private static void loadElement(String name, Map<String, String> classes, List<String> packages,
+      ClassLoader classLoader) {
+    int dot = name.lastIndexOf('.');
+    if (dot >= 0 && Character.isUpperCase(name.charAt(dot + 1))
+        && Character.isLowerCase(name.charAt(0))) {
+      load(name, classLoader);
+      return;
+    }
+    String simpleName = dot >= 0 ? name.substring(0, name.indexOf('.')) : name;
+    if (simpleName.isEmpty() || !Character.isUpperCase(simpleName.charAt(0))) {
+      return;
+    }
+    String className = classes.get(simpleName);
+    if (className != null) {
+      return;
+    }
+    for (int i = 0; i < packages.size(); i++) {
+      if (load(packages.get(i) + "." + simpleName, classLoader)) {
+        classes.put(simpleName, packages.get(i) + "." + simpleName);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Load the class without initializing it.
+   *
+   * @return Whether the class was found.
+   */
+  private static boolean load(String name, ClassLoader classLoader) {
+    try {
+      Class.forName(name, false, classLoader);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,498 @@
+/**
+ * @file DockIndicatorController.java
+ * @brief Class implementing the dock indicator overlays shown while a dock node is dragged.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.css.PseudoClass;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Popup;
+import javafx.util.Duration;
+
+/**
+ * Controller of the dock indicator overlays. A single controller is created on the first drag and
+ * shared by every dock pane in the application, it is attached to whichever dock pane the mouse was
+ * dragged into most recently. The screen rectangles of the indicator buttons are cached whenever the
+ * popups are shown, moved or laid out so that hit testing during DOCK_OVER events is plain
+ * arithmetic. The pseudo classes of the buttons and the geometry of the docking area indicator are
+ * only touched when the hovered button or the docking area changes.
+ *
+ * @since DockFX 0.2
+ */
+final class DockIndicatorController {
+  /**
+   * CSS pseudo class selector representing the hovered indicator button.
+   */
+  private static final PseudoClass FOCUSED_PSEUDO_CLASS = PseudoClass.getPseudoClass("focused");
+
+  /**
+   * A dock indicator button, shared by all dock panes along with the overlays.
+   */
+  private static final class IndicatorButton extends Button {
+    /**
+     * Whether this button is used for docking a node relative to the root of the dock pane.
+     */
+    private final boolean dockRoot;
+    /**
+     * The docking position indicated by this button.
+     */
+    private final DockPos dockPos;
+
+    private IndicatorButton(boolean dockRoot, DockPos dockPos) {
+      this.dockRoot = dockRoot;
+      this.dockPos = dockPos;
+    }
+
+    private DockPos getDockPos() {
+      return dockPos;
+    }
+
+    private boolean isDockRoot() {
+      return dockRoot;
+    }
+  }
+
+  /**
+   * The controller shared by all dock panes, created on first use.
+   */
+  private static DockIndicatorController instance;
+
+  /**
+   * The dock pane the indicators are currently attached to or null if they are not shown.
+   */
+  private DockPane dockPane;
+  /**
+   * The pane sized to the attached dock pane that lays out the root indicator buttons.
+   */
+  private final StackPane dockRootPane;
+
+  /**
+   * The docking area shape with a dotted animated border on the indicator overlay popup.
+   */
+  private final Rectangle dockAreaIndicator;
+  /**
+   * The timeline used to animate the border of the docking area indicator shape.
+   */
+  private final Timeline dockAreaStrokeTimeline;
+  /**
+   * The popup used to display the root dock indicator buttons and the docking area indicator.
+   */
+  private final Popup dockIndicatorOverlay;
+  /**
+   * The grid pane used to lay out the local dock indicator buttons. This is the grid used to lay
+   * out the buttons in the circular indicator.
+   */
+  private final GridPane dockPosIndicator;
+  /**
+   * The popup used to display the local dock indicator buttons. This allows these indicator
+   * buttons to be displayed outside the window of the dock pane.
+   */
+  private final Popup dockIndicatorPopup;
+  /**
+   * The indicator buttons in the order they are hit tested.
+   */
+  private final List<IndicatorButton> dockPosButtons;
+
+  /**
+   * The cached screen bounds of every indicator button as min x, min y, max x and max y.
+   */
+  private final double[] buttonBounds;
+  /**
+   * Whether the cached screen bounds of the buttons are out of date.
+   */
+  private boolean buttonBoundsDirty = true;
+  /**
+   * Whether the local indicator needs to be positioned again over the dock node.
+   */
+  private boolean positionDirty = true;
+
+  /**
+   * The dock node the local indicator is currently shown over.
+   */
+  private Node dockNode;
+  /**
+   * The index of the hovered indicator button or -1 if none is hovered.
+   */
+  private int hovered = -1;
+  /**
+   * The docking position of the hovered indicator button.
+   */
+  private DockPos dockPos;
+  /**
+   * The docking area of the hovered indicator button.
+   */
+  private Node dockArea;
+
+  /**
+   * The controller shared by all dock panes, the indicator overlays are created the first time this
+   * is called.
+   *
+   * @return The controller shared by all dock panes.
+   */
+  static DockIndicatorController getInstance() {
+    if (instance == null) {
+      instance = new DockIndicatorController();
+    }
+    return instance;
+  }
+
+  /**
+   * Creates the indicator overlays.
+   */
+  private DockIndicatorController() {
+    dockIndicatorPopup = new Popup();
+    dockIndicatorPopup.setAutoFix(false);
+
+    dockIndicatorOverlay = new Popup();
+    dockIndicatorOverlay.setAutoFix(false);
+
+    dockRootPane = new StackPane();
+
+    dockAreaIndicator = new Rectangle();
+    dockAreaIndicator.setManaged(false);
+    dockAreaIndicator.setMouseTransparent(true);
+
+    dockAreaStrokeTimeline = new Timeline();
+    dockAreaStrokeTimeline.setCycleCount(Timeline.INDEFINITE);
+    // 12 is the cumulative offset of the stroke dash array in the
+    // default.css style sheet
+    // RFE filed for CSS styled timelines/animations:
+    // https://bugs.openjdk.java.net/browse/JDK-8133837
+    KeyValue kv = new KeyValue(dockAreaIndicator.strokeDashOffsetProperty(), 12);
+    KeyFrame kf = new KeyFrame(Duration.millis(500), kv);
+    dockAreaStrokeTimeline.getKeyFrames().add(kf);
+
+    IndicatorButton dockCenter = new IndicatorButton(false, DockPos.CENTER);
+    dockCenter.getStyleClass().add("dock-center");
+
+    IndicatorButton dockTop = new IndicatorButton(false, DockPos.TOP);
+    dockTop.getStyleClass().add("dock-top");
+    IndicatorButton dockRight = new IndicatorButton(false, DockPos.RIGHT);
+    dockRight.getStyleClass().add("dock-right");
+    IndicatorButton dockBottom = new IndicatorButton(false, DockPos.BOTTOM);
+    dockBottom.getStyleClass().add("dock-bottom");
+    IndicatorButton dockLeft = new IndicatorButton(false, DockPos.LEFT);
+    dockLeft.getStyleClass().add("dock-left");
+
+    IndicatorButton dockTopRoot = new IndicatorButton(true, DockPos.TOP);
+    StackPane.setAlignment(dockTopRoot, Pos.TOP_CENTER);
+    dockTopRoot.getStyleClass().add("dock-top-root");
+
+    IndicatorButton dockRightRoot = new IndicatorButton(true, DockPos.RIGHT);
+    StackPane.setAlignment(dockRightRoot, Pos.CENTER_RIGHT);
+    dockRightRoot.getStyleClass().add("dock-right-root");
+
+    IndicatorButton dockBottomRoot = new IndicatorButton(true, DockPos.BOTTOM);
+    StackPane.setAlignment(dockBottomRoot, Pos.BOTTOM_CENTER);
+    dockBottomRoot.getStyleClass().add("dock-bottom-root");
+
+    IndicatorButton dockLeftRoot = new IndicatorButton(true, DockPos.LEFT);
+    StackPane.setAlignment(dockLeftRoot, Pos.CENTER_LEFT);
+    dockLeftRoot.getStyleClass().add("dock-left-root");
+
+    dockPosButtons = Arrays.asList(dockCenter, dockTop, dockRight, dockBottom, dockLeft, dockTopRoot,
+        dockRightRoot, dockBottomRoot, dockLeftRoot);
+    buttonBounds = new double[dockPosButtons.size() * 4];
+
+    dockPosIndicator = new GridPane();
+    dockPosIndicator.add(dockTop, 1, 0);
+    dockPosIndicator.add(dockRight, 2, 1);
+    dockPosIndicator.add(dockBottom, 1, 2);
+    dockPosIndicator.add(dockLeft, 0, 1);
+    dockPosIndicator.add(dockCenter, 1, 1);
+
+    dockRootPane.getChildren().addAll(dockAreaIndicator, dockTopRoot, dockRightRoot,
+        dockBottomRoot, dockLeftRoot);
+
+    dockIndicatorOverlay.getContent().add(dockRootPane);
+    dockIndicatorPopup.getContent().addAll(dockPosIndicator);
+
+    dockRootPane.getStyleClass().add("dock-root-pane");
+    dockPosIndicator.getStyleClass().add("dock-pos-indicator");
+    dockAreaIndicator.getStyleClass().add("dock-area-indicator");
+
+    // the cached bounds are only recomputed after the indicators are laid out
+    InvalidationListener layoutListener = new InvalidationListener() {
+      @Override
+      public void invalidated(Observable observable) {
+        buttonBoundsDirty = true;
+        positionDirty = true;
+      }
+    };
+    dockPosIndicator.layoutBoundsProperty().addListener(layoutListener);
+    for (IndicatorButton dockPosButton : dockPosButtons) {
+      dockPosButton.boundsInParentProperty().addListener(layoutListener);
+    }
+  }
+
+  /**
+   * The timeline used to animate the docking area indicator.
+   *
+   * @return The timeline used to animate the docking area indicator.
+   */
+  Timeline getDockAreaStrokeTimeline() {
+    return dockAreaStrokeTimeline;
+  }
+
+  /**
+   * Whether the overlay with the root indicator buttons is showing over the dock pane.
+   *
+   * @param dockPane The dock pane to test.
+   * @return Whether the overlay with the root indicator buttons is showing over the dock pane.
+   */
+  boolean isShowing(DockPane dockPane) {
+    return this.dockPane == dockPane && dockIndicatorOverlay.isShowing();
+  }
+
+  /**
+   * The docking position of the hovered indicator button.
+   *
+   * @return The docking position of the hovered indicator button or null if none is hovered.
+   */
+  DockPos getDockPos() {
+    return dockPos;
+  }
+
+  /**
+   * The docking area of the hovered indicator button. This is either the root of the dock pane or
+   * the dock node the local indicator is shown over.
+   *
+   * @return The docking area of the hovered indicator button or null if none is hovered.
+   */
+  Node getDockArea() {
+    return dockArea;
+  }
+
+  /**
+   * Show the overlay with the root indicator buttons over the dock pane. If the indicators are
+   * attached to another dock pane they are hidden and attached to this one instead.
+   *
+   * @param dockPane The dock pane to show the indicators over.
+   */
+  void show(DockPane dockPane) {
+    if (this.dockPane != dockPane) {
+      if (this.dockPane != null) {
+        hide(this.dockPane);
+      }
+      this.dockPane = dockPane;
+      dockRootPane.prefWidthProperty().bind(dockPane.widthProperty());
+      dockRootPane.prefHeightProperty().bind(dockPane.heightProperty());
+    }
+    if (!dockIndicatorOverlay.isShowing()) {
+      Point2D topLeft = dockPane.localToScreen(0, 0);
+      dockIndicatorOverlay.show(dockPane, topLeft.getX(), topLeft.getY());
+      buttonBoundsDirty = true;
+    }
+  }
+
+  /**
+   * Update the indicators for the mouse being dragged over the dock pane.
+   *
+   * @param dockNodeDrag The dock node under the mouse or null if there is none.
+   * @param root The root of the dock pane's layout.
+   * @param screenX The x coordinate of the mouse in screen coordinates.
+   * @param screenY The y coordinate of the mouse in screen coordinates.
+   */
+  void over(Node dockNodeDrag, Node root, double screenX, double screenY) {
+    if (dockNodeDrag != dockNode || positionDirty) {
+      dockNode = dockNodeDrag;
+      positionDirty = false;
+      buttonBoundsDirty = true;
+      positionLocalIndicator();
+    }
+
+    if (buttonBoundsDirty) {
+      cacheButtonBounds();
+    }
+
+    int hit = -1;
+    for (int i = 0; i < dockPosButtons.size(); i++) {
+      int j = i * 4;
+      if (screenX >= buttonBounds[j] && screenX < buttonBounds[j + 2]
+          && screenY >= buttonBounds[j + 1] && screenY < buttonBounds[j + 3]) {
+        hit = i;
+        break;
+      }
+    }
+
+    if (hit != hovered) {
+      if (hovered >= 0) {
+        dockPosButtons.get(hovered).pseudoClassStateChanged(FOCUSED_PSEUDO_CLASS, false);
+      }
+      if (hit >= 0) {
+        dockPosButtons.get(hit).pseudoClassStateChanged(FOCUSED_PSEUDO_CLASS, true);
+      }
+      hovered = hit;
+    }
+
+    DockPos hitPos = null;
+    Node hitArea = dockNodeDrag;
+    if (hit >= 0) {
+      hitPos = dockPosButtons.get(hit).getDockPos();
+      if (dockPosButtons.get(hit).isDockRoot()) {
+        hitArea = root;
+      }
+    }
+
+    if (hitPos != dockPos || hitArea != dockArea) {
+      dockPos = hitPos;
+      dockArea = hitArea;
+      updateDockAreaIndicator();
+    }
+  }
+
+  /**
+   * Hide both indicator popups and forget the hovered button if they are attached to the dock pane.
+   * The dock pane entered next may already have taken over the indicators before the one that was
+   * exited hides them, in which case nothing happens.
+   *
+   * @param dockPane The dock pane to hide the indicators from.
+   */
+  void hide(DockPane dockPane) {
+    if (this.dockPane != dockPane) {
+      return;
+    }
+    if (dockIndicatorPopup.isShowing()) {
+      dockIndicatorPopup.hide();
+    }
+    if (dockIndicatorOverlay.isShowing()) {
+      dockIndicatorOverlay.hide();
+    }
+    if (hovered >= 0) {
+      dockPosButtons.get(hovered).pseudoClassStateChanged(FOCUSED_PSEUDO_CLASS, false);
+      hovered = -1;
+    }
+    dockAreaIndicator.setVisible(false);
+    DockAnimations.deactivate(dockAreaStrokeTimeline);
+    dockRootPane.prefWidthProperty().unbind();
+    dockRootPane.prefHeightProperty().unbind();
+    this.dockPane = null;
+    dockNode = null;
+    dockPos = null;
+    dockArea = null;
+    positionDirty = true;
+  }
+
+  /**
+   * Center the local indicator popup over the dock node under the mouse or hide its buttons if
+   * there is none.
+   */
+  private void positionLocalIndicator() {
+    if (dockNode != null) {
+      Point2D originToScreen = dockNode.localToScreen(0, 0);
+
+      double posX = originToScreen.getX() + dockNode.getLayoutBounds().getWidth() / 2
+          - dockPosIndicator.getWidth() / 2;
+      double posY = originToScreen.getY() + dockNode.getLayoutBounds().getHeight() / 2
+          - dockPosIndicator.getHeight() / 2;
+
+      if (!dockIndicatorPopup.isShowing()) {
+        dockIndicatorPopup.show(dockPane, posX, posY);
+      } else {
+        dockIndicatorPopup.setX(posX);
+        dockIndicatorPopup.setY(posY);
+      }
+
+      // set visible after moving the popup
+      dockPosIndicator.setVisible(true);
+    } else {
+      dockPosIndicator.setVisible(false);
+    }
+  }
+
+  /**
+   * Cache the screen bounds of every visible indicator button. Hidden buttons get empty bounds so
+   * that they are never hit.
+   */
+  private void cacheButtonBounds() {
+    buttonBoundsDirty = false;
+    for (int i = 0; i < dockPosButtons.size(); i++) {
+      IndicatorButton dockPosButton = dockPosButtons.get(i);
+      Bounds bounds = null;
+      if (dockPosButton.getParent().isVisible() && dockPosButton.getScene() != null
+          && dockPosButton.getScene().getWindow() != null
+          && dockPosButton.getScene().getWindow().isShowing()) {
+        bounds = dockPosButton.localToScreen(dockPosButton.getLayoutBounds());
+      }
+      int j = i * 4;
+      if (bounds != null) {
+        buttonBounds[j] = bounds.getMinX();
+        buttonBounds[j + 1] = bounds.getMinY();
+        buttonBounds[j + 2] = bounds.getMaxX();
+        buttonBounds[j + 3] = bounds.getMaxY();
+      } else {
+        buttonBounds[j] = buttonBounds[j + 1] = buttonBounds[j + 2] = buttonBounds[j + 3] = 0;
+      }
+    }
+  }
+
+  /**
+   * Size and position the docking area indicator for the hovered button and docking area.
+   */
+  private void updateDockAreaIndicator() {
+    if (dockPos != null && dockArea != null) {
+      Point2D originToScene = dockArea.localToScene(0, 0);
+
+      dockAreaIndicator.setVisible(true);
+      // the border is only animated while the docking area is shown
+      DockAnimations.activate(dockAreaStrokeTimeline);
+      dockAreaIndicator.relocate(originToScene.getX(), originToScene.getY());
+      if (dockPos == DockPos.RIGHT) {
+        dockAreaIndicator.setTranslateX(dockArea.getLayoutBounds().getWidth() / 2);
+      } else {
+        dockAreaIndicator.setTranslateX(0);
+      }
+
+      if (dockPos == DockPos.BOTTOM) {
+        dockAreaIndicator.setTranslateY(dockArea.getLayoutBounds().getHeight() / 2);
+      } else {
+        dockAreaIndicator.setTranslateY(0);
+      }
+
+      if (dockPos == DockPos.LEFT || dockPos == DockPos.RIGHT) {
+        dockAreaIndicator.setWidth(dockArea.getLayoutBounds().getWidth() / 2);
+      } else {
+        dockAreaIndicator.setWidth(dockArea.getLayoutBounds().getWidth());
+      }
+      if (dockPos == DockPos.TOP || dockPos == DockPos.BOTTOM) {
+        dockAreaIndicator.setHeight(dockArea.getLayoutBounds().getHeight() / 2);
+      } else {
+        dockAreaIndicator.setHeight(dockArea.getLayoutBounds().getHeight());
+      }
+    } else {
+      dockAreaIndicator.setVisible(false);
+      DockAnimations.deactivate(dockAreaStrokeTimeline);
+    }
+  }
+}
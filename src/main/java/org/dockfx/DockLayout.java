@@ -0,0 +1,749 @@
+/**
+ * @file DockLayout.java
+ * @brief Class implementing the layout tree model of a dock pane.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.geometry.Orientation;
+
+/**
+ * Layout tree model of a dock pane. The tree is made of splits that divide their space between
+ * their children along an orientation, of leaves that hold the docked contents and of tabs that
+ * stack several leaves in the same space with only one of them selected. Every item has
+ * a weight relative to its siblings. The model is plain Java and never touches the scene graph, a
+ * dock layout pane lays out the docked contents from it in a single pass. Leaves are indexed by
+ * their contents so finding the place of a docked content never traverses the tree.
+ *
+ * @param <T> The type of the docked contents.
+ *
+ * @since DockFX 0.2
+ */
+final class DockLayout<T> {
+  /**
+   * Weighs the contents when they are docked. The weight of a content is the share of the space it
+   * takes relative to the average share of its new siblings.
+   *
+   * @param <T> The type of the docked contents.
+   */
+  interface Weigher<T> {
+    /**
+     * The weight of the content relative to the average weight of its new siblings.
+     *
+     * @param content The content being docked.
+     * @return The weight of the content relative to the average weight of its new siblings.
+     */
+    double weigh(T content);
+  }
+
+  /**
+   * An item of the layout tree.
+   *
+   * @param <T> The type of the docked contents.
+   */
+  abstract static class Item<T> {
+    /**
+     * The split this item is a child of or null if this is the root or it was removed.
+     */
+    Split<T> parent;
+    /**
+     * The weight of this item relative to its siblings.
+     */
+    double weight = 1;
+
+    /**
+     * The split this item is a child of.
+     *
+     * @return The split this item is a child of or null if this is the root or it was removed.
+     */
+    final Split<T> getParent() {
+      return parent;
+    }
+
+    /**
+     * The weight of this item relative to its siblings.
+     *
+     * @return The weight of this item relative to its siblings.
+     */
+    final double getWeight() {
+      return weight;
+    }
+
+    /**
+     * The weight of this item relative to its siblings.
+     *
+     * @param weight The weight of this item relative to its siblings.
+     */
+    final void setWeight(double weight) {
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * An item holding a docked content.
+   *
+   * @param <T> The type of the docked contents.
+   */
+  static final class Leaf<T> extends Item<T> {
+    /**
+     * The docked content.
+     */
+    private final T content;
+    /**
+     * The tabs this leaf is stacked in or null if it is a child of a split.
+     */
+    private Tabs<T> tabs;
+
+    private Leaf(T content) {
+      this.content = content;
+    }
+
+    /**
+     * The tabs this leaf is stacked in.
+     *
+     * @return The tabs this leaf is stacked in or null if it is a child of a split.
+     */
+    Tabs<T> getTabs() {
+      return tabs;
+    }
+
+    /**
+     * The docked content.
+     *
+     * @return The docked content.
+     */
+    T getContent() {
+      return content;
+    }
+  }
+
+  /**
+   * An item stacking several leaves in the same space with only one of them selected.
+   *
+   * @param <T> The type of the docked contents.
+   */
+  static final class Tabs<T> extends Item<T> {
+    /**
+     * The leaves stacked in these tabs, there are always at least two.
+     */
+    private final List<Leaf<T>> leaves = new ArrayList<Leaf<T>>();
+    /**
+     * The index of the selected leaf.
+     */
+    private int selected = 0;
+
+    private Tabs() {}
+
+    /**
+     * The leaves stacked in these tabs.
+     *
+     * @return An unmodifiable view of the leaves stacked in these tabs.
+     */
+    List<Leaf<T>> getLeaves() {
+      return Collections.unmodifiableList(leaves);
+    }
+
+    /**
+     * The selected leaf, which is the only one whose content is shown.
+     *
+     * @return The selected leaf.
+     */
+    Leaf<T> getSelected() {
+      return leaves.get(selected);
+    }
+  }
+
+  /**
+   * An item dividing its space between its children along an orientation.
+   *
+   * @param <T> The type of the docked contents.
+   */
+  static final class Split<T> extends Item<T> {
+    /**
+     * The orientation the children are laid out along.
+     */
+    private Orientation orientation = Orientation.HORIZONTAL;
+    /**
+     * The children of this split.
+     */
+    private final List<Item<T>> children = new ArrayList<Item<T>>();
+
+    private Split() {}
+
+    /**
+     * The orientation the children are laid out along.
+     *
+     * @return The orientation the children are laid out along.
+     */
+    Orientation getOrientation() {
+      return orientation;
+    }
+
+    /**
+     * The children of this split.
+     *
+     * @return An unmodifiable view of the children of this split.
+     */
+    List<Item<T>> getChildren() {
+      return Collections.unmodifiableList(children);
+    }
+
+    private void add(int index, Item<T> item) {
+      item.parent = this;
+      children.add(index, item);
+    }
+
+    private void remove(Item<T> item) {
+      children.remove(item);
+      item.parent = null;
+    }
+  }
+
+  /**
+   * The place a content was docked at, remembered so that the content can be docked there again
+   * after it was removed. The place is the path of child indices from the root down to the item
+   * holding the content along with the orientation of every split on the path, so it survives the
+   * splits that were collapsed when the content was removed.
+   */
+  static final class Slot {
+    /**
+     * The index of the item on the path in each split from the root down.
+     */
+    private final int[] path;
+    /**
+     * The orientation of each split on the path from the root down.
+     */
+    private final Orientation[] orientations;
+    /**
+     * The share of the space of its split the item holding the content had.
+     */
+    private final double share;
+    /**
+     * The index of the content in its tabs or -1 if it was not stacked.
+     */
+    private final int tabIndex;
+
+    private Slot(int[] path, Orientation[] orientations, double share, int tabIndex) {
+      this.path = path;
+      this.orientations = orientations;
+      this.share = share;
+      this.tabIndex = tabIndex;
+    }
+  }
+
+  /**
+   * Weighs the contents when they are docked.
+   */
+  private final Weigher<T> weigher;
+  /**
+   * The root split of the layout.
+   */
+  private Split<T> root = new Split<T>();
+  /**
+   * The leaf of every docked content.
+   */
+  private final Map<T, Leaf<T>> leaves = new IdentityHashMap<T, Leaf<T>>();
+
+  /**
+   * Creates a new empty layout.
+   *
+   * @param weigher Weighs the contents when they are docked.
+   */
+  DockLayout(Weigher<T> weigher) {
+    this.weigher = weigher;
+  }
+
+  /**
+   * The root split of the layout.
+   *
+   * @return The root split of the layout.
+   */
+  Split<T> getRoot() {
+    return root;
+  }
+
+  /**
+   * The leaf holding the content.
+   *
+   * @param content The docked content.
+   * @return The leaf holding the content or null if it is not docked in this layout.
+   */
+  Leaf<T> getLeaf(T content) {
+    return leaves.get(content);
+  }
+
+  /**
+   * Whether the content is docked in this layout.
+   *
+   * @param content The content to look for.
+   * @return Whether the content is docked in this layout.
+   */
+  boolean contains(T content) {
+    return leaves.containsKey(content);
+  }
+
+  /**
+   * Dock the content at the docking position relative to the sibling. A content that is already
+   * docked in this layout is moved.
+   *
+   * @param content The content to dock.
+   * @param dockPos The docking position of the content relative to the sibling.
+   * @param sibling The docked content to dock next to or null to dock relative to the root.
+   */
+  void dock(T content, DockPos dockPos, T sibling) {
+    if (leaves.containsKey(content)) {
+      undock(content);
+    }
+
+    Leaf<T> leaf = new Leaf<T>(content);
+    leaves.put(content, leaf);
+
+    Split<T> split = root;
+    if (split.children.isEmpty()) {
+      split.add(0, leaf);
+      return;
+    }
+
+    Leaf<T> siblingLeaf = sibling != null ? leaves.get(sibling) : null;
+    if (dockPos == DockPos.CENTER) {
+      if (siblingLeaf != null) {
+        stack(leaf, siblingLeaf);
+        return;
+      }
+      // there is nothing to stack onto so add to the end of the root
+      dockPos = root.orientation == Orientation.HORIZONTAL ? DockPos.RIGHT : DockPos.BOTTOM;
+    }
+
+    Item<T> siblingItem = null;
+    if (siblingLeaf != null) {
+      siblingItem = siblingLeaf.tabs != null ? siblingLeaf.tabs : siblingLeaf;
+      split = siblingItem.parent;
+    }
+
+    Orientation requestedOrientation = (dockPos == DockPos.LEFT || dockPos == DockPos.RIGHT)
+        ? Orientation.HORIZONTAL : Orientation.VERTICAL;
+
+    // if the orientation is different then wrap the sibling in a new split
+    if (split.orientation != requestedOrientation) {
+      if (split.children.size() > 1) {
+        Split<T> wrapper = new Split<T>();
+        if (siblingItem == null) {
+          wrapper.add(0, root);
+          root = wrapper;
+        } else {
+          int index = split.children.indexOf(siblingItem);
+          split.remove(siblingItem);
+          split.add(index, wrapper);
+          wrapper.weight = siblingItem.weight;
+          siblingItem.weight = 1;
+          wrapper.add(0, siblingItem);
+        }
+        split = wrapper;
+      }
+      split.orientation = requestedOrientation;
+    }
+
+    // the weight of the content is relative to the average weight of the
+    // items of the split so the weights of the siblings never change
+    double total = 0;
+    for (int i = 0; i < split.children.size(); i++) {
+      total += split.children.get(i).weight;
+    }
+    double weight = weigher.weigh(content);
+    leaf.weight = (weight > 0 ? weight : 1) * total / split.children.size();
+
+    int index;
+    int siblingIndex = siblingItem != null ? split.children.indexOf(siblingItem) : -1;
+    if (dockPos == DockPos.LEFT || dockPos == DockPos.TOP) {
+      index = siblingIndex >= 0 ? siblingIndex : 0;
+    } else {
+      index = siblingIndex >= 0 ? siblingIndex + 1 : split.children.size();
+    }
+    split.add(index, leaf);
+  }
+
+  /**
+   * Stack the leaf in the tabs of the sibling, creating the tabs in place of the sibling if it is
+   * not stacked yet. The leaf is added after the sibling and selected.
+   */
+  private void stack(Leaf<T> leaf, Leaf<T> siblingLeaf) {
+    Tabs<T> tabs = tabsOf(siblingLeaf);
+    stack(leaf, tabs, tabs.leaves.indexOf(siblingLeaf) + 1);
+  }
+
+  /**
+   * Stack the leaf in the tabs at the index and select it.
+   */
+  private void stack(Leaf<T> leaf, Tabs<T> tabs, int index) {
+    leaf.tabs = tabs;
+    tabs.leaves.add(index, leaf);
+    tabs.selected = index;
+  }
+
+  /**
+   * The tabs the leaf is stacked in, created in place of the leaf if it is not stacked yet.
+   */
+  private Tabs<T> tabsOf(Leaf<T> leaf) {
+    Tabs<T> tabs = leaf.tabs;
+    if (tabs == null) {
+      tabs = new Tabs<T>();
+      Split<T> split = leaf.parent;
+      int index = split.children.indexOf(leaf);
+      split.remove(leaf);
+      tabs.weight = leaf.weight;
+      split.add(index, tabs);
+      leaf.tabs = tabs;
+      tabs.leaves.add(leaf);
+    }
+    return tabs;
+  }
+
+  /**
+   * The place the content is docked at.
+   *
+   * @param content The docked content.
+   * @return The place the content is docked at or null if it is not docked in this layout.
+   */
+  Slot getSlot(T content) {
+    Leaf<T> leaf = leaves.get(content);
+    if (leaf == null) {
+      return null;
+    }
+    Item<T> item = leaf.tabs != null ? leaf.tabs : leaf;
+    int tabIndex = leaf.tabs != null ? leaf.tabs.leaves.indexOf(leaf) : -1;
+
+    int depth = 0;
+    for (Split<T> split = item.parent; split != null; split = split.parent) {
+      depth++;
+    }
+    int[] path = new int[depth];
+    Orientation[] orientations = new Orientation[depth];
+    Item<T> child = item;
+    for (Split<T> split = item.parent; split != null; split = split.parent) {
+      depth--;
+      path[depth] = split.children.indexOf(child);
+      orientations[depth] = split.orientation;
+      child = split;
+    }
+
+    Split<T> split = item.parent;
+    double total = 0;
+    for (int i = 0; i < split.children.size(); i++) {
+      total += split.children.get(i).weight;
+    }
+    return new Slot(path, orientations, total > 0 ? item.weight / total : 1, tabIndex);
+  }
+
+  /**
+   * Dock the content at the place it was docked at before. The path to the place is followed as far
+   * as it still exists in this layout, splits that were collapsed since are created again and the
+   * content takes the same share of the space of its split that it had. A content that is already
+   * docked in this layout is moved.
+   *
+   * @param content The content to dock.
+   * @param slot The place the content was docked at, from {@link #getSlot(Object)}.
+   */
+  void dock(T content, Slot slot) {
+    if (leaves.containsKey(content)) {
+      undock(content);
+    }
+
+    Leaf<T> leaf = new Leaf<T>(content);
+    leaves.put(content, leaf);
+
+    Split<T> split = root;
+    if (split.children.size() <= 1) {
+      split.orientation = slot.orientations[0];
+    } else if (split.orientation != slot.orientations[0]) {
+      // the root was turned since so the rest of the path is lost
+      Split<T> wrapper = new Split<T>();
+      wrapper.orientation = slot.orientations[0];
+      wrapper.add(0, root);
+      root = wrapper;
+      insert(root, Math.min(slot.path[0], 1), leaf, slot.share);
+      return;
+    }
+
+    for (int depth = 0;; depth++) {
+      int index = Math.min(slot.path[depth], split.children.size());
+      if (depth == slot.path.length - 1) {
+        if (slot.tabIndex >= 0 && index < split.children.size()
+            && !(split.children.get(index) instanceof Split)) {
+          Item<T> item = split.children.get(index);
+          Tabs<T> tabs = item instanceof Tabs ? (Tabs<T>) item : tabsOf((Leaf<T>) item);
+          stack(leaf, tabs, Math.min(slot.tabIndex, tabs.leaves.size()));
+        } else {
+          insert(split, index, leaf, slot.share);
+        }
+        return;
+      }
+
+      Orientation orientation = slot.orientations[depth + 1];
+      Item<T> item = index < split.children.size() ? split.children.get(index) : null;
+      if (item instanceof Split && ((Split<T>) item).orientation == orientation) {
+        split = (Split<T>) item;
+      } else if (item != null && !(item instanceof Split)) {
+        // the item shared a split with the content that was collapsed
+        // when the content was removed so create the split again
+        Split<T> wrapper = new Split<T>();
+        wrapper.orientation = orientation;
+        split.remove(item);
+        split.add(index, wrapper);
+        wrapper.weight = item.weight;
+        item.weight = 1;
+        wrapper.add(0, item);
+        split = wrapper;
+      } else {
+        // the rest of the path no longer exists
+        insert(split, index, leaf, slot.share);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Add the item to the split at the index with a weight that gives it the share of the space of
+   * the split.
+   */
+  private void insert(Split<T> split, int index, Item<T> item, double share) {
+    double total = 0;
+    for (int i = 0; i < split.children.size(); i++) {
+      total += split.children.get(i).weight;
+    }
+    item.weight = total > 0 && share < 1 ? share * total / (1 - share) : 1;
+    split.add(index, item);
+  }
+
+  /**
+   * Select the content in the tabs it is stacked in.
+   *
+   * @param content The docked content to select.
+   * @return Whether the selection changed.
+   */
+  boolean select(T content) {
+    Leaf<T> leaf = leaves.get(content);
+    if (leaf == null || leaf.tabs == null) {
+      return false;
+    }
+    int index = leaf.tabs.leaves.indexOf(leaf);
+    if (leaf.tabs.selected == index) {
+      return false;
+    }
+    leaf.tabs.selected = index;
+    return true;
+  }
+
+  /**
+   * Tile the contents in a single row or column of equal weights. The contents are removed from
+   * wherever they are docked in this layout first and the tile is added to the end of the root,
+   * which makes it the whole layout when every docked content is tiled.
+   *
+   * @param contents The contents to tile.
+   * @param orientation The orientation of the tile.
+   */
+  void tile(List<? extends T> contents, Orientation orientation) {
+    List<Item<T>> items = new ArrayList<Item<T>>(contents.size());
+    for (int i = 0; i < contents.size(); i++) {
+      items.add(tileLeaf(contents.get(i)));
+    }
+    append(items, orientation);
+  }
+
+  /**
+   * Tile the contents in a balanced grid of equal weights. The grid has as many columns as the
+   * square root of the number of contents rounded up and is filled row by row. The contents are
+   * removed from wherever they are docked in this layout first and the grid is added to the end of
+   * the root, which makes it the whole layout when every docked content is tiled.
+   *
+   * @param contents The contents to tile.
+   */
+  void tileGrid(List<? extends T> contents) {
+    int columns = (int) Math.ceil(Math.sqrt(contents.size()));
+    List<Item<T>> rows = new ArrayList<Item<T>>();
+    for (int i = 0; i < contents.size(); i += columns) {
+      Split<T> row = new Split<T>();
+      row.orientation = Orientation.HORIZONTAL;
+      for (int j = i; j < i + columns && j < contents.size(); j++) {
+        row.add(row.children.size(), tileLeaf(contents.get(j)));
+      }
+      rows.add(row.children.size() > 1 ? row : row.children.get(0));
+    }
+    for (int i = 0; i < rows.size(); i++) {
+      rows.get(i).parent = null;
+    }
+    append(rows, Orientation.VERTICAL);
+  }
+
+  /**
+   * Remove the content from this layout and create a new leaf of equal weight for it.
+   */
+  private Leaf<T> tileLeaf(T content) {
+    undock(content);
+    Leaf<T> leaf = new Leaf<T>(content);
+    leaves.put(content, leaf);
+    return leaf;
+  }
+
+  /**
+   * Add the items to the end of the root along the orientation, wrapping the root in a new split if
+   * it is laid out along the other orientation and is not empty. The items share the space equally
+   * with each other and with the items already in the root.
+   */
+  private void append(List<Item<T>> items, Orientation orientation) {
+    if (items.isEmpty()) {
+      return;
+    }
+    if (root.orientation != orientation) {
+      if (root.children.size() > 1) {
+        Split<T> wrapper = new Split<T>();
+        wrapper.add(0, root);
+        root = wrapper;
+      } else if (root.children.size() == 1 && root.children.get(0) instanceof Split
+          && ((Split<T>) root.children.get(0)).orientation == orientation) {
+        // a lone split along the orientation takes the place of the root
+        Split<T> child = (Split<T>) root.children.get(0);
+        root.remove(child);
+        root = child;
+      }
+      root.orientation = orientation;
+    }
+
+    double weight = 1;
+    if (!root.children.isEmpty()) {
+      double total = 0;
+      for (int i = 0; i < root.children.size(); i++) {
+        total += root.children.get(i).weight;
+      }
+      weight = total / root.children.size();
+    }
+    for (int i = 0; i < items.size(); i++) {
+      Item<T> item = items.get(i);
+      item.weight = weight;
+      root.add(root.children.size(), item);
+    }
+  }
+
+  /**
+   * Normalize the layout so that its depth only depends on the number of orientation changes
+   * between the root and the leaves. Empty splits are removed, splits with a single child are
+   * replaced by the child and splits along the same orientation as their parent are merged into the
+   * parent. The weights of the merged children are scaled so that they keep the share of the space
+   * the split they were merged from had.
+   */
+  void normalize() {
+    normalize(root);
+    // the root is always a split but a lone split below it can take its place
+    while (root.children.size() == 1 && root.children.get(0) instanceof Split) {
+      Split<T> child = (Split<T>) root.children.get(0);
+      root.remove(child);
+      root = child;
+    }
+  }
+
+  private void normalize(Split<T> split) {
+    for (int i = 0; i < split.children.size(); i++) {
+      Item<T> item = split.children.get(i);
+      if (!(item instanceof Split)) {
+        continue;
+      }
+      Split<T> child = (Split<T>) item;
+      normalize(child);
+
+      if (child.children.isEmpty()) {
+        split.remove(child);
+        i--;
+      } else if (child.children.size() == 1) {
+        Item<T> grandchild = child.children.get(0);
+        child.remove(grandchild);
+        grandchild.weight = child.weight;
+        split.remove(child);
+        split.add(i, grandchild);
+        // the grandchild may be a split that can now be merged
+        i--;
+      } else if (child.orientation == split.orientation) {
+        double total = 0;
+        for (int j = 0; j < child.children.size(); j++) {
+          total += child.children.get(j).weight;
+        }
+        split.remove(child);
+        int index = i;
+        while (!child.children.isEmpty()) {
+          Item<T> grandchild = child.children.get(0);
+          child.remove(grandchild);
+          grandchild.weight =
+              total > 0 ? grandchild.weight * child.weight / total : child.weight / 2;
+          split.add(index++, grandchild);
+        }
+        i--;
+      }
+    }
+  }
+
+  /**
+   * Remove the content from the layout along with any split that is left empty, except the root.
+   *
+   * @param content The content to remove.
+   * @return Whether the content was docked in this layout.
+   */
+  boolean undock(T content) {
+    Leaf<T> leaf = leaves.remove(content);
+    if (leaf == null) {
+      return false;
+    }
+
+    Tabs<T> tabs = leaf.tabs;
+    if (tabs != null) {
+      int index = tabs.leaves.indexOf(leaf);
+      tabs.leaves.remove(index);
+      leaf.tabs = null;
+      // select the next tab if the selected one was removed, or the
+      // previous one if it was the last
+      if (tabs.selected > index || tabs.selected >= tabs.leaves.size()) {
+        tabs.selected--;
+      }
+      // a single remaining leaf takes the place of the tabs
+      if (tabs.leaves.size() == 1) {
+        Leaf<T> remaining = tabs.leaves.remove(0);
+        remaining.tabs = null;
+        remaining.weight = tabs.weight;
+        Split<T> split = tabs.parent;
+        int tabsIndex = split.children.indexOf(tabs);
+        split.remove(tabs);
+        split.add(tabsIndex, remaining);
+      }
+      return true;
+    }
+
+    Split<T> split = leaf.parent;
+    split.remove(leaf);
+
+    // only the ancestors of the content can have become empty
+    while (split != root && split.children.isEmpty()) {
+      Split<T> parent = split.parent;
+      parent.remove(split);
+      split = parent;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,552 @@
+/**
+ * @file DockLayoutPane.java
+ * @brief Class implementing the region that lays out the docked nodes of a dock pane.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dockfx.DockLayout.Item;
+import org.dockfx.DockLayout.Leaf;
+import org.dockfx.DockLayout.Split;
+import org.dockfx.DockLayout.Tabs;
+
+import javafx.css.PseudoClass;
+import javafx.event.EventHandler;
+import javafx.geometry.Orientation;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+
+/**
+ * Region that lays out the docked nodes of a dock pane from its layout model. The docked nodes and
+ * the dividers between them are all direct children of this region, which lays out the whole tree
+ * of splits in a single pass over the model using the weights of its items. Dividers are plain
+ * regions that change the weights of the two items next to them when they are dragged. Tabs are
+ * shown as a header above the content of the selected tab, the contents of the other tabs are not
+ * children of this region at all so they take no part in CSS, layout or rendering until selected.
+ *
+ * @since DockFX 0.2
+ */
+final class DockLayoutPane extends Region {
+  /**
+   * The thickness of a divider between two items.
+   */
+  private static final double DIVIDER_SIZE = 5;
+
+  /**
+   * A divider between two adjacent children of a split.
+   */
+  private static final class Divider extends Region {
+    /**
+     * The split this divider divides.
+     */
+    private Split<Node> split;
+    /**
+     * The index of the child of the split before this divider.
+     */
+    private int index;
+    /**
+     * The position where the child before this divider starts along the orientation of the split.
+     */
+    private double start;
+    /**
+     * The combined extent of the two children next to this divider.
+     */
+    private double extent;
+
+    private Divider() {
+      getStyleClass().add("dock-layout-divider");
+    }
+  }
+
+  /**
+   * CSS pseudo class selector representing the tab of the selected content.
+   */
+  private static final PseudoClass SELECTED_PSEUDO_CLASS = PseudoClass.getPseudoClass("selected");
+
+  /**
+   * The header showing a tab for every content stacked in tabs.
+   */
+  private static final class TabHeader extends HBox {
+    /**
+     * The contents the tabs of this header currently show.
+     */
+    private final List<Node> contents = new ArrayList<Node>();
+
+    private TabHeader() {
+      getStyleClass().add("dock-tab-header");
+    }
+  }
+
+  /**
+   * The model of the layout.
+   */
+  private final DockLayout<Node> layout;
+  /**
+   * Called when selecting a tab changed the model.
+   */
+  private final Runnable changeHandler;
+  /**
+   * The dividers currently in use in the order they are laid out.
+   */
+  private final List<Divider> dividers = new ArrayList<Divider>();
+  /**
+   * The header of every tabs item of the model.
+   */
+  private Map<Tabs<Node>, TabHeader> tabHeaders = new IdentityHashMap<Tabs<Node>, TabHeader>();
+  /**
+   * The minimum width and height of every item of the model, measured bottom-up once per layout
+   * pass.
+   */
+  private final Map<Item<Node>, double[]> minExtents = new IdentityHashMap<Item<Node>, double[]>();
+
+  /**
+   * Selects the content of the tab that was pressed.
+   */
+  private final EventHandler<MouseEvent> tabHandler = new EventHandler<MouseEvent>() {
+    @Override
+    public void handle(MouseEvent event) {
+      Node content = (Node) ((Node) event.getSource()).getUserData();
+      if (layout.select(content)) {
+        changeHandler.run();
+      }
+      event.consume();
+    }
+  };
+
+  /**
+   * Moves the divider being dragged by changing the weights of the two items next to it.
+   */
+  private final EventHandler<MouseEvent> dividerHandler = new EventHandler<MouseEvent>() {
+    @Override
+    public void handle(MouseEvent event) {
+      Divider divider = (Divider) event.getSource();
+      if (divider.split == null || divider.extent <= 0) {
+        return;
+      }
+      boolean horizontal = divider.split.getOrientation() == Orientation.HORIZONTAL;
+      double position = horizontal ? sceneToLocal(event.getSceneX(), event.getSceneY()).getX()
+          : sceneToLocal(event.getSceneX(), event.getSceneY()).getY();
+      Item<Node> first = divider.split.getChildren().get(divider.index);
+      Item<Node> second = divider.split.getChildren().get(divider.index + 1);
+
+      // neither item may be dragged below its minimum extent, when both
+      // minimums do not fit they share the extent in proportion to them
+      double firstMin = minExtent(first, horizontal);
+      double secondMin = minExtent(second, horizontal);
+      double before;
+      if (firstMin + secondMin > divider.extent) {
+        before = divider.extent * firstMin / (firstMin + secondMin);
+      } else {
+        before = Math.max(firstMin, Math.min(divider.extent - secondMin, position - divider.start));
+      }
+
+      double weight = first.getWeight() + second.getWeight();
+      first.setWeight(weight * before / divider.extent);
+      second.setWeight(weight - first.getWeight());
+      requestLayout();
+      event.consume();
+    }
+  };
+
+  /**
+   * Creates a new layout pane for the model.
+   *
+   * @param layout The model of the layout.
+   * @param changeHandler Called when this region changed the model, which must lead to
+   *        {@link #apply()} being called.
+   */
+  DockLayoutPane(DockLayout<Node> layout, Runnable changeHandler) {
+    this.layout = layout;
+    this.changeHandler = changeHandler;
+    this.getStyleClass().add("dock-layout-pane");
+  }
+
+  /**
+   * Update the children of this region after the model changed. Only the docked nodes, headers and
+   * dividers that were added or removed are added to or removed from the children, the ones that
+   * stay keep their place in the scene graph along with their focus and CSS state. The order of
+   * the children does not matter since they never overlap.
+   */
+  void apply() {
+    List<Node> children = new ArrayList<Node>();
+    Map<Tabs<Node>, TabHeader> headers = new IdentityHashMap<Tabs<Node>, TabHeader>();
+    int dividerCount = collect(layout.getRoot(), children, headers);
+    tabHeaders = headers;
+    // items that are no longer in the model are not measured again
+    minExtents.clear();
+
+    while (dividers.size() < dividerCount) {
+      Divider divider = new Divider();
+      divider.addEventHandler(MouseEvent.MOUSE_DRAGGED, dividerHandler);
+      dividers.add(divider);
+    }
+    while (dividers.size() > dividerCount) {
+      dividers.remove(dividers.size() - 1);
+    }
+    children.addAll(dividers);
+
+    Set<Node> shown = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+    shown.addAll(children);
+    Set<Node> current = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+    current.addAll(getChildren());
+    Set<Node> removed = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+    for (Node child : getChildren()) {
+      if (!shown.contains(child)) {
+        removed.add(child);
+      }
+    }
+    List<Node> added = new ArrayList<Node>();
+    for (int i = 0; i < children.size(); i++) {
+      if (!current.contains(children.get(i))) {
+        added.add(children.get(i));
+      }
+    }
+    if (!removed.isEmpty()) {
+      getChildren().removeAll(removed);
+    }
+    if (!added.isEmpty()) {
+      getChildren().addAll(added);
+    }
+    requestLayout();
+  }
+
+  /**
+   * Collect the docked nodes below the split that are shown along with the headers of the tabs and
+   * count the dividers they need.
+   */
+  private int collect(Split<Node> split, List<Node> children,
+      Map<Tabs<Node>, TabHeader> headers) {
+    List<Item<Node>> items = split.getChildren();
+    int dividerCount = Math.max(0, items.size() - 1);
+    for (int i = 0; i < items.size(); i++) {
+      Item<Node> item = items.get(i);
+      if (item instanceof Leaf) {
+        children.add(((Leaf<Node>) item).getContent());
+      } else if (item instanceof Tabs) {
+        Tabs<Node> tabs = (Tabs<Node>) item;
+        TabHeader header = updateHeader(tabs);
+        headers.put(tabs, header);
+        children.add(header);
+        // only the selected content is attached
+        children.add(tabs.getSelected().getContent());
+      } else {
+        dividerCount += collect((Split<Node>) item, children, headers);
+      }
+    }
+    return dividerCount;
+  }
+
+  /**
+   * Reuse or create the header of the tabs, only recreating its tabs when the stacked contents
+   * changed.
+   */
+  private TabHeader updateHeader(Tabs<Node> tabs) {
+    TabHeader header = tabHeaders.get(tabs);
+    if (header == null) {
+      header = new TabHeader();
+    }
+
+    List<Leaf<Node>> leaves = tabs.getLeaves();
+    boolean changed = header.contents.size() != leaves.size();
+    for (int i = 0; !changed && i < leaves.size(); i++) {
+      changed = header.contents.get(i) != leaves.get(i).getContent();
+    }
+    if (changed) {
+      header.contents.clear();
+      header.getChildren().clear();
+      for (int i = 0; i < leaves.size(); i++) {
+        Node content = leaves.get(i).getContent();
+        Label tab = new Label();
+        tab.getStyleClass().add("dock-tab");
+        tab.setUserData(content);
+        if (content instanceof DockNode) {
+          tab.textProperty().bind(((DockNode) content).titleProperty());
+        }
+        tab.addEventHandler(MouseEvent.MOUSE_PRESSED, tabHandler);
+        header.contents.add(content);
+        header.getChildren().add(tab);
+      }
+    }
+
+    Node selected = tabs.getSelected().getContent();
+    for (int i = 0; i < header.getChildren().size(); i++) {
+      Node tab = header.getChildren().get(i);
+      tab.pseudoClassStateChanged(SELECTED_PSEUDO_CLASS, header.contents.get(i) == selected);
+    }
+    return header;
+  }
+
+  /**
+   * Measure the minimum width and height of the item and of every item below it, caching them for
+   * the rest of the layout pass. Only the selected content of tabs is measured.
+   *
+   * @return The minimum width and height of the item.
+   */
+  private double[] measureMin(Item<Node> item) {
+    double[] min = minExtents.get(item);
+    if (min == null) {
+      min = new double[2];
+      minExtents.put(item, min);
+    }
+    if (item instanceof Leaf || item instanceof Tabs) {
+      Node content;
+      double header = 0;
+      if (item instanceof Tabs) {
+        content = ((Tabs<Node>) item).getSelected().getContent();
+        TabHeader tabHeader = tabHeaders.get(item);
+        if (tabHeader != null) {
+          header = tabHeader.prefHeight(-1);
+        }
+      } else {
+        content = ((Leaf<Node>) item).getContent();
+      }
+      min[0] = content.minWidth(-1);
+      min[1] = header + content.minHeight(-1);
+      return min;
+    }
+    Split<Node> split = (Split<Node>) item;
+    List<Item<Node>> items = split.getChildren();
+    boolean horizontal = split.getOrientation() == Orientation.HORIZONTAL;
+    double along = 0, across = 0;
+    for (int i = 0; i < items.size(); i++) {
+      double[] childMin = measureMin(items.get(i));
+      along += horizontal ? childMin[0] : childMin[1];
+      across = Math.max(across, horizontal ? childMin[1] : childMin[0]);
+    }
+    if (items.size() > 1) {
+      along += DIVIDER_SIZE * (items.size() - 1);
+    }
+    min[0] = horizontal ? along : across;
+    min[1] = horizontal ? across : along;
+    return min;
+  }
+
+  /**
+   * The minimum extent of the item as measured by the last layout pass.
+   */
+  private double minExtent(Item<Node> item, boolean horizontal) {
+    double[] min = minExtents.get(item);
+    if (min == null) {
+      min = measureMin(item);
+    }
+    return horizontal ? min[0] : min[1];
+  }
+
+  /**
+   * The preferred extent of the item, computed from the preferred sizes of the docked nodes below
+   * it.
+   */
+  private double prefExtent(Item<Node> item, boolean horizontal) {
+    if (item instanceof Leaf || item instanceof Tabs) {
+      Node content;
+      double header = 0;
+      if (item instanceof Tabs) {
+        content = ((Tabs<Node>) item).getSelected().getContent();
+        TabHeader tabHeader = tabHeaders.get(item);
+        if (tabHeader != null && !horizontal) {
+          header = tabHeader.prefHeight(-1);
+        }
+      } else {
+        content = ((Leaf<Node>) item).getContent();
+      }
+      return header + (horizontal ? content.prefWidth(-1) : content.prefHeight(-1));
+    }
+    Split<Node> split = (Split<Node>) item;
+    List<Item<Node>> items = split.getChildren();
+    boolean along = (split.getOrientation() == Orientation.HORIZONTAL) == horizontal;
+    double extent = 0;
+    for (int i = 0; i < items.size(); i++) {
+      double childExtent = prefExtent(items.get(i), horizontal);
+      extent = along ? extent + childExtent : Math.max(extent, childExtent);
+    }
+    if (along && items.size() > 1) {
+      extent += DIVIDER_SIZE * (items.size() - 1);
+    }
+    return extent;
+  }
+
+  @Override
+  protected double computeMinWidth(double height) {
+    return snappedLeftInset() + measureMin(layout.getRoot())[0] + snappedRightInset();
+  }
+
+  @Override
+  protected double computeMinHeight(double width) {
+    return snappedTopInset() + measureMin(layout.getRoot())[1] + snappedBottomInset();
+  }
+
+  @Override
+  protected double computePrefWidth(double height) {
+    return snappedLeftInset() + prefExtent(layout.getRoot(), true) + snappedRightInset();
+  }
+
+  @Override
+  protected double computePrefHeight(double width) {
+    return snappedTopInset() + prefExtent(layout.getRoot(), false) + snappedBottomInset();
+  }
+
+  @Override
+  protected void layoutChildren() {
+    double x = snappedLeftInset();
+    double y = snappedTopInset();
+    double width = getWidth() - x - snappedRightInset();
+    double height = getHeight() - y - snappedBottomInset();
+    // the minimum extents are measured once for the whole tree instead
+    // of again for every split they are nested in
+    measureMin(layout.getRoot());
+    layoutSplit(layout.getRoot(), x, y, width, height, 0);
+  }
+
+  /**
+   * Lay out the children of the split in the area and the dividers between them.
+   *
+   * @return The index of the next divider to lay out.
+   */
+  private int layoutSplit(Split<Node> split, double x, double y, double width, double height,
+      int dividerIndex) {
+    List<Item<Node>> items = split.getChildren();
+    int size = items.size();
+    if (size == 0) {
+      return dividerIndex;
+    }
+
+    boolean horizontal = split.getOrientation() == Orientation.HORIZONTAL;
+    double end = horizontal ? x + width : y + height;
+    double available = Math.max(0, (horizontal ? width : height) - DIVIDER_SIZE * (size - 1));
+    double[] extents = distribute(items, horizontal, available);
+
+    double position = horizontal ? x : y;
+    double previousStart = position;
+    double previousExtent = 0;
+    for (int i = 0; i < size; i++) {
+      Item<Node> item = items.get(i);
+      double extent;
+      if (i == size - 1) {
+        // the last child takes whatever is left after rounding
+        extent = Math.max(0, end - position);
+      } else {
+        extent = snapSize(extents[i]);
+      }
+
+      if (i > 0) {
+        Divider divider = dividers.get(dividerIndex++);
+        divider.split = split;
+        divider.index = i - 1;
+        divider.start = previousStart;
+        divider.extent = previousExtent + extent;
+        divider.setCursor(horizontal ? Cursor.H_RESIZE : Cursor.V_RESIZE);
+        if (horizontal) {
+          divider.resizeRelocate(snapPosition(position - DIVIDER_SIZE), y, DIVIDER_SIZE, height);
+        } else {
+          divider.resizeRelocate(x, snapPosition(position - DIVIDER_SIZE), width, DIVIDER_SIZE);
+        }
+      }
+
+      double itemX = horizontal ? position : x;
+      double itemY = horizontal ? y : position;
+      double itemWidth = horizontal ? extent : width;
+      double itemHeight = horizontal ? height : extent;
+      if (item instanceof Leaf) {
+        ((Leaf<Node>) item).getContent().resizeRelocate(snapPosition(itemX), snapPosition(itemY),
+            itemWidth, itemHeight);
+      } else if (item instanceof Tabs) {
+        TabHeader header = tabHeaders.get(item);
+        double headerHeight = 0;
+        if (header != null) {
+          headerHeight = Math.min(itemHeight, snapSize(header.prefHeight(itemWidth)));
+          header.resizeRelocate(snapPosition(itemX), snapPosition(itemY), itemWidth, headerHeight);
+        }
+        ((Tabs<Node>) item).getSelected().getContent().resizeRelocate(snapPosition(itemX),
+            snapPosition(itemY + headerHeight), itemWidth, itemHeight - headerHeight);
+      } else {
+        dividerIndex =
+            layoutSplit((Split<Node>) item, itemX, itemY, itemWidth, itemHeight, dividerIndex);
+      }
+
+      previousStart = position;
+      previousExtent = extent;
+      position += extent + DIVIDER_SIZE;
+    }
+    return dividerIndex;
+  }
+
+  /**
+   * Distribute the available extent between the items by their weights without giving any item less
+   * than its minimum extent. When the minimum extents do not fit, the items share the available
+   * extent in proportion to them.
+   *
+   * @return The extent of every item.
+   */
+  private double[] distribute(List<Item<Node>> items, boolean horizontal, double available) {
+    int size = items.size();
+    double[] extents = new double[size];
+    double[] mins = new double[size];
+    double minTotal = 0;
+    for (int i = 0; i < size; i++) {
+      mins[i] = minExtent(items.get(i), horizontal);
+      minTotal += mins[i];
+    }
+    if (minTotal >= available) {
+      for (int i = 0; i < size; i++) {
+        extents[i] = minTotal > 0 ? available * mins[i] / minTotal : available / size;
+      }
+      return extents;
+    }
+
+    // items whose share is below their minimum are pinned to it and the
+    // rest is shared again between the others until every share fits
+    boolean[] pinned = new boolean[size];
+    double remaining = available;
+    double total = 0;
+    int free = size;
+    for (int i = 0; i < size; i++) {
+      total += items.get(i).getWeight();
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < size; i++) {
+        if (!pinned[i]) {
+          extents[i] = total > 0 ? remaining * items.get(i).getWeight() / total : remaining / free;
+        }
+      }
+      for (int i = 0; i < size; i++) {
+        if (!pinned[i] && extents[i] < mins[i]) {
+          pinned[i] = true;
+          extents[i] = mins[i];
+          remaining -= mins[i];
+          total -= items.get(i).getWeight();
+          free--;
+          changed = true;
+        }
+      }
+    }
+    return extents;
+  }
+}
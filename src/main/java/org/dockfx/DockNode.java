@@ -23,14 +23,17 @@ package org.dockfx;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.dockfx.events.DockNodeEvent;
 import org.dockfx.events.DockNodeEventListenerInterface;
 import org.dockfx.viewControllers.DockFXViewController;
 
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -44,7 +47,6 @@ import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Cursor;
 import javafx.scene.Node;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
@@ -79,6 +81,11 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	 * The contents of the dock node, i.e. a TreeView or ListView.
 	 */
 	private Node contents;
+	/**
+	 * Creates the contents the first time this dock node is laid out. Null
+	 * once the contents were created or if they were given up front.
+	 */
+	private Supplier<Node> contentsSupplier;
 	/**
 	 * The title bar that implements our dragging and state manipulation.
 	 */
@@ -92,6 +99,11 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	 * The dock pane this dock node belongs to when not floating.
 	 */
 	private DockPane dockPane;
+	/**
+	 * The place this dock node was last docked at in its dock pane or null if
+	 * it was never undocked from it.
+	 */
+	private DockLayout.Slot lastSlot;
 
 	/**
 	 * View controller of node inside this DockNode
@@ -138,6 +150,9 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 				borderPane.pseudoClassStateChanged(MAXIMIZED_PSEUDO_CLASS, get());
 			}
 
+			if (stage == null) {
+				return;
+			}
 			stage.setMaximized(get());
 
 			// TODO: This is a work around to fill the screen bounds and not
@@ -214,6 +229,28 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		this(contents, null, null);
 	}
 
+	/**
+	 * Creates a default DockNode whose contents are only created the first
+	 * time it is laid out, which is when it is first shown. A placeholder takes
+	 * the place of the contents until then so a dock node that is minimized,
+	 * behind a tab or never looked at costs nothing to restore.
+	 *
+	 * @param contentsSupplier
+	 *            Creates the contents of the dock node.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @param graphic
+	 *            The caption graphic of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 */
+	public DockNode(Supplier<Node> contentsSupplier, String title, Node graphic) {
+		StackPane placeholder = new StackPane();
+		placeholder.getStyleClass().add("dock-node-placeholder");
+		initializeDockNode(placeholder, title, graphic, null);
+		this.contentsSupplier = contentsSupplier;
+	}
+
 	/**
 	 *
 	 * Creates a default DockNode with contents loaded from FXMLFile at provided
@@ -229,7 +266,23 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	 *            bidirectional state with the title bar and stage.
 	 */
 	public DockNode(String FXMLPath, String title, Node graphic) {
-		FXMLLoader loader = loadNode(FXMLPath);
+		this(loadNode(FXMLPath), title, graphic);
+	}
+
+	/**
+	 * Creates a default DockNode with contents and view controller from an
+	 * FXML file that has already been loaded by the loader.
+	 *
+	 * @param loader
+	 *            loader that has loaded the fxml file.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @param graphic
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 */
+	DockNode(FXMLLoader loader, String title, Node graphic) {
 		initializeDockNode(loader.getRoot(), title, graphic, loader.getController());
 		currentCursor = Cursor.DEFAULT;
 	}
@@ -260,17 +313,18 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	}
 
 	/**
-	 * Loads Node from fxml file located at FXMLPath and returns it.
+	 * Loads Node from fxml file located at FXMLPath and returns it. The file
+	 * is only read once, further nodes are loaded from the cached file.
 	 *
 	 * @param FXMLPath
 	 *            Path to fxml file.
 	 * @return Node loaded from fxml file or StackPane with Label with error
 	 *         message.
 	 */
-	private static FXMLLoader loadNode(String FXMLPath) {
+	static FXMLLoader loadNode(String FXMLPath) {
 		FXMLLoader loader = new FXMLLoader();
 		try {
-			loader.load(DockNode.class.getResourceAsStream(FXMLPath));
+			loader.load(DockFXMLCache.open(FXMLPath));
 		} catch (Exception e) {
 			e.printStackTrace();
 			loader.setRoot(new StackPane(new Label("Could not load FXML file")));
@@ -431,6 +485,45 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		this.contents = contents;
 	}
 
+	/**
+	 * Whether the contents of this dock node have been created. This is only
+	 * false for a dock node created with a contents supplier that has not been
+	 * shown yet.
+	 *
+	 * @return Whether the contents of this dock node have been created.
+	 */
+	public final boolean isContentsMaterialized() {
+		return contentsSupplier == null;
+	}
+
+	/**
+	 * Create the contents of this dock node now if it was created with a
+	 * contents supplier and has not been shown yet.
+	 */
+	public final void materializeContents() {
+		if (contentsSupplier == null) {
+			return;
+		}
+		Supplier<Node> supplier = contentsSupplier;
+		contentsSupplier = null;
+
+		Node newContents = supplier.get();
+		VBox.setVgrow(newContents, Priority.ALWAYS);
+		setContents(newContents);
+		// the contents may be added during a layout pass which comes after the
+		// CSS pass so they have to be styled before they are laid out
+		if (getScene() != null) {
+			newContents.applyCss();
+		}
+	}
+
+	@Override
+	protected void layoutChildren() {
+		// being laid out means being shown for the first time
+		materializeContents();
+		super.layoutChildren();
+	}
+
 	/**
 	 * Changes the title bar in the layout of this dock node. This can be used
 	 * to remove the dock title bar from the dock node by passing null.
@@ -490,19 +583,18 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 
 		if (this.isDocked()) {
 			this.undock();
-		} else {
-			dockPane.floatNode(this);
 		}
 
 		this.dockPane = dockPane;
 
-		stage = new Stage();
-		stage.titleProperty().bind(titleProperty);
+		Window owner = null;
 		if (dockPane != null && dockPane.getScene() != null && dockPane.getScene().getWindow() != null) {
-			stage.initOwner(dockPane.getScene().getWindow());
+			owner = dockPane.getScene().getWindow();
 		}
 
-		stage.initStyle(stageStyle);
+		// reuse a stage with the same owner and style if one is idle
+		stage = DockStagePool.acquire(owner, stageStyle);
+		stage.titleProperty().bind(titleProperty);
 
 		// offset the new stage to cover exactly the area the dock was local to
 		// the scene
@@ -511,7 +603,6 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		// on where the mouse was clicked
 		Point2D stagePosition;
 		if (this.isDecorated()) {
-			Window owner = stage.getOwner();
 			stagePosition = floatScene.add(new Point2D(owner.getX(), owner.getY()));
 		} else {
 			if (floatScreen == null) {
@@ -525,38 +616,29 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 			stagePosition = stagePosition.add(translation);
 		}
 
-		// the border pane allows the dock node to
-		// have a drop shadow effect on the border
-		// but also maintain the layout of contents
-		// such as a tab that has no content
-		borderPane = new BorderPane();
-		borderPane.getStyleClass().add("dock-node-border");
+		borderPane = (BorderPane) stage.getScene().getRoot();
 		borderPane.setCenter(this);
 
-		Scene scene = new Scene(borderPane);
-
 		// apply the floating property so we can get its padding size
 		// while it is floating to offset it by the drop shadow
 		// this way it pops out above exactly where it was when docked
 		this.floatingProperty.set(true);
-		this.applyCss();
 
-		// apply the border pane css so that we can get the insets and
-		// position the stage properly
-		borderPane.applyCss();
-		Insets insetsDelta = borderPane.getInsets();
+		// the insets only depend on the css state of the border pane so they
+		// are cached instead of applying the css of the whole contents here,
+		// the contents are styled by the css pass of showing the stage
+		Insets insetsDelta = DockChromeMetrics.getBorderInsets(borderPane);
 
 		double insetsWidth = insetsDelta.getLeft() + insetsDelta.getRight();
 		double insetsHeight = insetsDelta.getTop() + insetsDelta.getBottom();
 
-		stage.setMinWidth(borderPane.minWidth(this.getHeight()) + insetsWidth);
-		stage.setMinHeight(borderPane.minHeight(this.getWidth()) + insetsHeight);
-
 		borderPane.setPrefSize(this.getWidth() + insetsWidth, this.getHeight() + insetsHeight);
 		borderPane.setPrefSize(this.getPrefWidth(), this.getPrefHeight());
 
 		if (centerInStage && dockPane != null && dockPane.getScene() != null && getContents() instanceof Region) {
 			Region region = (Region) getContents();
+			// the preferred size of the contents needs their css
+			region.applyCss();
 
 			double regionHeightDelta = (region.prefHeight(-1) / 2);
 			double regionWidthDelta = (region.prefWidth(-1) / 2);
@@ -577,17 +659,13 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 
 		stage.setX(stagePosition.getX() - insetsDelta.getLeft());
 		stage.setY(stagePosition.getY() - insetsDelta.getTop());
-		stage.setScene(scene);
-
-		if (stageStyle == StageStyle.TRANSPARENT) {
-			scene.setFill(null);
-		}
 
 		stage.setResizable(this.isStageResizable());
 		if (this.isStageResizable()) {
 			stage.addEventFilter(MouseEvent.MOUSE_PRESSED, this);
 			stage.addEventFilter(MouseEvent.MOUSE_MOVED, this);
 			stage.addEventFilter(MouseEvent.MOUSE_DRAGGED, this);
+			stage.addEventFilter(MouseEvent.MOUSE_RELEASED, this);
 		}
 
 		// we want to set the client area size
@@ -596,22 +674,32 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		stage.sizeToScene();
 		stage.show();
 
-		getDockTitleBar().getStyleClass().add("dock-title-bar-focused");
-		stage.focusedProperty().addListener(new ChangeListener<Boolean>() {
-			public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
-				if (newValue) {
-					fireFocusedEvent();
-					setCssFocused();
+		// the css has been applied by showing the stage
+		stage.setMinWidth(borderPane.minWidth(this.getHeight()) + insetsWidth);
+		stage.setMinHeight(borderPane.minHeight(this.getWidth()) + insetsHeight);
 
-				} else {
-					fireDefocusedEvent();
-					setCssDefosed();
-				}
-			}
-		});
+		getDockTitleBar().getStyleClass().add("dock-title-bar-focused");
+		stage.focusedProperty().addListener(stageFocusListener);
 		setCssFocused();
 	}
 
+	/**
+	 * Fires the focus events and updates the title bar when the stage of this
+	 * floating node gains or loses focus.
+	 */
+	private final ChangeListener<Boolean> stageFocusListener = new ChangeListener<Boolean>() {
+		public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
+			if (newValue) {
+				fireFocusedEvent();
+				setCssFocused();
+
+			} else {
+				fireDefocusedEvent();
+				setCssDefosed();
+			}
+		}
+	};
+
 	private void setCssFocused() {
 		// this removes all occurrences of undesired css class in css classes
 		// list
@@ -661,8 +749,15 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 			stage.removeEventFilter(MouseEvent.MOUSE_PRESSED, this);
 			stage.removeEventFilter(MouseEvent.MOUSE_MOVED, this);
 			stage.removeEventFilter(MouseEvent.MOUSE_DRAGGED, this);
-
-			stage.close();
+			stage.removeEventFilter(MouseEvent.MOUSE_RELEASED, this);
+			resizeSession.end();
+			stage.focusedProperty().removeListener(stageFocusListener);
+			borderPane.pseudoClassStateChanged(MAXIMIZED_PSEUDO_CLASS, false);
+
+			// the stage is hidden and kept for the next node that floats
+			DockStagePool.release(stage);
+			stage = null;
+			borderPane = null;
 		}
 	}
 
@@ -706,8 +801,8 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	}
 
 	/**
-	 * The stage associated with this dock node. Can be null if the dock node
-	 * was never set to floating.
+	 * The stage associated with this dock node. Null if the dock node is not
+	 * floating.
 	 *
 	 * @return The stage associated with this node.
 	 */
@@ -716,8 +811,8 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	}
 
 	/**
-	 * The border pane used to parent this dock node when floating. Can be null
-	 * if the dock node was never set to floating.
+	 * The border pane used to parent this dock node when floating. Null if the
+	 * dock node is not floating.
 	 *
 	 * @return The stage associated with this node.
 	 */
@@ -948,14 +1043,38 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		return minimizedProperty.get();
 	}
 
+	/**
+	 * The bounds of the stage of this node when it was minimized or null if it
+	 * was not floating.
+	 */
+	private Rectangle2D minimizedBounds;
+
 	public final void setMinimized(boolean minimized) {
 		if (!minimized && isMinimized()) {
-			setVisible(true);
+			// put the node back where it was minimized from
+			if (minimizedBounds == null && dockPane != null) {
+				dock();
+			} else {
+				setFloating(true);
+				if (minimizedBounds != null) {
+					stage.setX(minimizedBounds.getMinX());
+					stage.setY(minimizedBounds.getMinY());
+					stage.setWidth(minimizedBounds.getWidth());
+					stage.setHeight(minimizedBounds.getHeight());
+					minimizedBounds = null;
+				}
+				stage.toFront();
+			}
 			fireRestoreEvent();
-			stage.toFront();
 		} else if (minimized && !isMinimized()) {
-			setFloating(true);
-			setVisible(false);
+			// a minimized node is only represented by its task bar item so it
+			// is detached from the layout and does not keep a stage
+			if (isFloating()) {
+				minimizedBounds = new Rectangle2D(stage.getX(), stage.getY(), stage.getWidth(), stage.getHeight());
+				setFloating(false);
+			} else if (isDocked()) {
+				undock();
+			}
 			fireMinimizeEvent();
 		}
 		this.minimizedProperty.set(minimized);
@@ -1013,6 +1132,34 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		stageResizableProperty.set(resizable);
 	}
 
+	/**
+	 * The share of the space this node takes when it is docked next to other
+	 * nodes relative to the average share of those nodes. A weight of 1 docks
+	 * the node with as much space as an average sibling and a weight of 2 with
+	 * twice as much. The weight is read instead of measuring the preferred
+	 * size of the contents so docking costs the same whatever the contents.
+	 *
+	 * @defaultValue 1
+	 */
+	public final DoubleProperty layoutWeightProperty() {
+		return layoutWeightProperty;
+	}
+
+	private DoubleProperty layoutWeightProperty = new SimpleDoubleProperty(1) {
+		@Override
+		public String getName() {
+			return "layoutWeight";
+		}
+	};
+
+	public final double getLayoutWeight() {
+		return layoutWeightProperty.get();
+	}
+
+	public final void setLayoutWeight(double layoutWeight) {
+		layoutWeightProperty.set(layoutWeight);
+	}
+
 	/**
 	 * Boolean property maintaining whether this node is currently docked. This
 	 * is used by the dock pane to inform the dock node whether it is currently
@@ -1095,9 +1242,34 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		dockPane.dock(this, dockPos);
 	}
 
+	/**
+	 * Dock this node back into the dock pane it was last associated with at
+	 * the place it was last docked at, which is remembered whenever it is
+	 * undocked. A node that was never docked there is docked to the right of
+	 * the root. Does nothing if the node is docked already or was never
+	 * associated with a dock pane.
+	 */
+	public void dock() {
+		if (dockPane == null || isDocked()) {
+			return;
+		}
+		DockPane dockPane = this.dockPane;
+		DockLayout.Slot slot = lastSlot;
+		dockImpl(dockPane);
+		if (slot != null) {
+			dockPane.dock(this, slot);
+		} else {
+			dockPane.dock(this, DockPos.RIGHT);
+		}
+	}
+
 	private final void dockImpl(DockPane dockPane) {
 		if (isFloating()) {
 			setFloating(false);
+		} else if (isDocked()) {
+			// docking a node that is still in a layout, as when dropping
+			// the outline of a docked node, moves it
+			undock();
 		}
 		this.dockPane = dockPane;
 		this.dockedProperty.set(true);
@@ -1109,6 +1281,11 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	 */
 	public void undock() {
 		if (dockPane != null) {
+			// remember the place so that dock() can put the node back there
+			DockLayout.Slot slot = dockPane.getSlot(this);
+			if (slot != null) {
+				lastSlot = slot;
+			}
 			dockPane.undock(this);
 		}
 		this.dockedProperty.set(false);
@@ -1138,9 +1315,9 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 	}
 
 	/**
-	 * The last position of the mouse that was within the minimum layout bounds.
+	 * The resize of the stage by dragging its border, reused for every resize.
 	 */
-	private Point2D sizeLast;
+	private final DockResizeSession resizeSession = new DockResizeSession();
 	/**
 	 * Whether we are currently resizing in a given direction.
 	 */
@@ -1166,7 +1343,10 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 		}
 
 		if (event.getEventType() == MouseEvent.MOUSE_PRESSED) {
-			sizeLast = new Point2D(event.getScreenX(), event.getScreenY());
+			if (this.isMouseResizeZone()) {
+				resizeSession.begin(stage, sizeWest, sizeEast, sizeNorth, sizeSouth, event.getScreenX(),
+						event.getScreenY());
+			}
 		} else if (event.getEventType() == MouseEvent.MOUSE_MOVED) {
 			Insets insets = borderPane.getPadding();
 
@@ -1199,55 +1379,18 @@ public class DockNode extends VBox implements EventHandler<MouseEvent> {
 
 			this.getScene().setCursor(cursor);
 		} else if (event.getEventType() == MouseEvent.MOUSE_DRAGGED && this.isMouseResizeZone()) {
-			Point2D sizeCurrent = new Point2D(event.getScreenX(), event.getScreenY());
-			Point2D sizeDelta = sizeCurrent.subtract(sizeLast);
-
-			double newX = stage.getX(), newY = stage.getY(), newWidth = stage.getWidth(), newHeight = stage.getHeight();
-
-			if (sizeNorth) {
-				newHeight -= sizeDelta.getY();
-				newY += sizeDelta.getY();
-			} else if (sizeSouth) {
-				newHeight += sizeDelta.getY();
-			}
-
-			if (sizeWest) {
-				newWidth -= sizeDelta.getX();
-				newX += sizeDelta.getX();
-			} else if (sizeEast) {
-				newWidth += sizeDelta.getX();
-			}
-
-			// TODO: find a way to do this synchronously and eliminate the
-			// flickering
-			// of moving the stage
-			// around, also file a bug report for this feature if a work around
-			// can
-			// not be found this
-			// primarily occurs when dragging north/west but it also appears in
-			// native
-			// windows and Visual
-			// Studio, so not that big of a concern.
+			// the stage bounds follow the latest sample once per pulse which
+			// avoids most of the flickering of moving the stage around when
+			// dragging north/west, it also appears in native windows and
+			// Visual Studio, so not that big of a concern.
 			// Bug report filed:
 			// https://bugs.openjdk.java.net/browse/JDK-8133332
-			double currentX = sizeLast.getX(), currentY = sizeLast.getY();
-			if (newWidth >= stage.getMinWidth()) {
-				stage.setX(newX);
-				stage.setWidth(newWidth);
-				currentX = sizeCurrent.getX();
-			}
-
-			if (newHeight >= stage.getMinHeight()) {
-				stage.setY(newY);
-				stage.setHeight(newHeight);
-				currentY = sizeCurrent.getY();
-			}
-			sizeLast = new Point2D(currentX, currentY);
+			resizeSession.drag(event.getScreenX(), event.getScreenY());
 			// we do not want the title bar getting these events
 			// while we are actively resizing
-			if (sizeNorth || sizeSouth || sizeWest || sizeEast) {
-				event.consume();
-			}
+			event.consume();
+		} else if (event.getEventType() == MouseEvent.MOUSE_RELEASED && resizeSession.isActive()) {
+			resizeSession.release(event.getScreenX(), event.getScreenY());
 		}
 	}
 }
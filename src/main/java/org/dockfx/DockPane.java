@@ -21,48 +21,33 @@
 package org.dockfx;
 
 import java.util.List;
-import java.util.Stack;
 
 import org.dockfx.events.DockEvent;
 import org.dockfx.taskBar.TaskBar;
 import com.sun.javafx.css.StyleManager;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
-import javafx.css.PseudoClass;
 import javafx.event.EventHandler;
 import javafx.geometry.Orientation;
-import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.Button;
-import javafx.scene.control.SplitPane;
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Priority;
-import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.scene.shape.Rectangle;
-import javafx.stage.Popup;
-import javafx.util.Duration;
 
 /**
- * Base class for a dock pane that provides the layout of the dock nodes.
- * Stacking the dock nodes to the center in a TabPane will be added in a future
- * release. For now the DockPane uses the relative sizes of the dock nodes and
- * lays them out in a tree of SplitPanes.
+ * Base class for a dock pane that provides the layout of the dock nodes. The
+ * DockPane uses the relative sizes of the dock nodes and lays them out in a
+ * tree of splits. Dock nodes docked to the center of another are stacked with
+ * it in tabs.
  *
  * @since DockFX 0.1
  */
 public class DockPane extends VBox implements EventHandler<DockEvent> {
 	/**
-	 * The current root node of this dock pane's layout.
+	 * The region that lays out the docked nodes of this dock pane's layout.
 	 */
-	private Node root;
+	private final DockLayoutPane root;
 
 	/**
 	 * Whether a DOCK_ENTER event has been received by this dock pane since the
@@ -86,34 +71,21 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 	private DockPos dockPosDrag;
 
 	/**
-	 * The docking area shape with a dotted animated border on the indicator
-	 * overlay popup.
+	 * The model of this dock pane's layout. The model is the source of truth
+	 * for the layout and knows the place of every docked node so docking and
+	 * undocking never traverse the scene graph.
 	 */
-	private Rectangle dockAreaIndicator;
+	private final DockLayout<Node> layout;
 	/**
-	 * The timeline used to animate the borer of the docking area indicator
-	 * shape. Because JavaFX has no CSS styling for timelines/animations yet we
-	 * will make this private and offer an accessor for the user to
-	 * programmatically modify the animation or disable it.
+	 * The number of batches of layout changes that have begun and not yet been
+	 * committed. The layout is only applied when the outermost batch commits.
 	 */
-	private Timeline dockAreaStrokeTimeline;
+	private int batchDepth = 0;
 	/**
-	 * The popup used to display the root dock indicator buttons and the docking
-	 * area indicator.
+	 * Whether the model of the layout changed since the layout was last
+	 * applied.
 	 */
-	private Popup dockIndicatorOverlay;
-
-	/**
-	 * The grid pane used to lay out the local dock indicator buttons. This is
-	 * the grid used to lay out the buttons in the circular indicator.
-	 */
-	private GridPane dockPosIndicator;
-	/**
-	 * The popup used to display the local dock indicator buttons. This allows
-	 * these indicator buttons to be displayed outside the window of this dock
-	 * pane.
-	 */
-	private Popup dockIndicatorPopup;
+	private boolean layoutDirty = false;
 
 	/**
 	 * Invisible bar at bottom of the stage where minimized nodes live
@@ -124,8 +96,12 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 	 * Base class for a dock indicator button that allows it to be displayed
 	 * during a dock event and continue to receive input.
 	 *
+	 * @deprecated The dock indicator overlays are shared by all dock panes
+	 *             and no longer create their buttons from a dock pane, this
+	 *             class is only kept for compatibility.
 	 * @since DockFX 0.1
 	 */
+	@Deprecated
 	public class DockPosButton extends Button {
 		/**
 		 * Whether this dock indicator button is used for docking a node
@@ -189,12 +165,6 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 		}
 	}
 
-	/**
-	 * A collection used to manage the indicator buttons and automate hit
-	 * detection during DOCK_OVER events.
-	 */
-	private ObservableList<DockPosButton> dockPosButtons;
-
 	/**
 	 * Creates a new DockPane adding event handlers for dock events and creating
 	 * the indicator overlays.
@@ -211,105 +181,75 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 				if (event.getEventType() == DockEvent.DOCK_ENTER) {
 					DockPane.this.receivedEnter = true;
 				} else if (event.getEventType() == DockEvent.DOCK_OVER) {
-					DockPane.this.dockNodeDrag = null;
+					DockPane.this.dockNodeDrag = findDockNode(event.getTarget());
 				}
 			}
 
 		});
 
-		dockIndicatorPopup = new Popup();
-		dockIndicatorPopup.setAutoFix(false);
-
-		dockIndicatorOverlay = new Popup();
-		dockIndicatorOverlay.setAutoFix(false);
-
-		StackPane dockRootPane = new StackPane();
-		dockRootPane.prefWidthProperty().bind(this.widthProperty());
-		dockRootPane.prefHeightProperty().bind(this.heightProperty());
-
-		dockAreaIndicator = new Rectangle();
-		dockAreaIndicator.setManaged(false);
-		dockAreaIndicator.setMouseTransparent(true);
-
-		dockAreaStrokeTimeline = new Timeline();
-		dockAreaStrokeTimeline.setCycleCount(Timeline.INDEFINITE);
-		// 12 is the cumulative offset of the stroke dash array in the
-		// default.css style sheet
-		// RFE filed for CSS styled timelines/animations:
-		// https://bugs.openjdk.java.net/browse/JDK-8133837
-		KeyValue kv = new KeyValue(dockAreaIndicator.strokeDashOffsetProperty(), 12);
-		KeyFrame kf = new KeyFrame(Duration.millis(500), kv);
-		dockAreaStrokeTimeline.getKeyFrames().add(kf);
-		dockAreaStrokeTimeline.play();
-
-		DockPosButton dockCenter = new DockPosButton(false, DockPos.CENTER);
-		dockCenter.getStyleClass().add("dock-center");
-
-		DockPosButton dockTop = new DockPosButton(false, DockPos.TOP);
-		dockTop.getStyleClass().add("dock-top");
-		DockPosButton dockRight = new DockPosButton(false, DockPos.RIGHT);
-		dockRight.getStyleClass().add("dock-right");
-		DockPosButton dockBottom = new DockPosButton(false, DockPos.BOTTOM);
-		dockBottom.getStyleClass().add("dock-bottom");
-		DockPosButton dockLeft = new DockPosButton(false, DockPos.LEFT);
-		dockLeft.getStyleClass().add("dock-left");
-
-		DockPosButton dockTopRoot = new DockPosButton(true, DockPos.TOP);
-		StackPane.setAlignment(dockTopRoot, Pos.TOP_CENTER);
-		dockTopRoot.getStyleClass().add("dock-top-root");
-
-		DockPosButton dockRightRoot = new DockPosButton(true, DockPos.RIGHT);
-		StackPane.setAlignment(dockRightRoot, Pos.CENTER_RIGHT);
-		dockRightRoot.getStyleClass().add("dock-right-root");
-
-		DockPosButton dockBottomRoot = new DockPosButton(true, DockPos.BOTTOM);
-		StackPane.setAlignment(dockBottomRoot, Pos.BOTTOM_CENTER);
-		dockBottomRoot.getStyleClass().add("dock-bottom-root");
-
-		DockPosButton dockLeftRoot = new DockPosButton(true, DockPos.LEFT);
-		StackPane.setAlignment(dockLeftRoot, Pos.CENTER_LEFT);
-		dockLeftRoot.getStyleClass().add("dock-left-root");
-
-		// TODO: dockCenter goes first when tabs are added in a future version
-		dockPosButtons = FXCollections.observableArrayList(dockTop, dockRight, dockBottom, dockLeft, dockTopRoot,
-				dockRightRoot, dockBottomRoot, dockLeftRoot);
-
-		dockPosIndicator = new GridPane();
-		dockPosIndicator.add(dockTop, 1, 0);
-		dockPosIndicator.add(dockRight, 2, 1);
-		dockPosIndicator.add(dockBottom, 1, 2);
-		dockPosIndicator.add(dockLeft, 0, 1);
-		// dockPosIndicator.add(dockCenter, 1, 1);
-
-		dockRootPane.getChildren().addAll(dockAreaIndicator, dockTopRoot, dockRightRoot, dockBottomRoot, dockLeftRoot);
-
-		dockIndicatorOverlay.getContent().add(dockRootPane);
-		dockIndicatorPopup.getContent().addAll(dockPosIndicator);
-
 		this.getStyleClass().add("dock-pane");
-		dockRootPane.getStyleClass().add("dock-root-pane");
-		dockPosIndicator.getStyleClass().add("dock-pos-indicator");
-		dockAreaIndicator.getStyleClass().add("dock-area-indicator");
 
 		this.setAlignment(Pos.BOTTOM_CENTER);
 
-		root = new SplitPane();
+		layout = new DockLayout<Node>(new DockLayout.Weigher<Node>() {
+			@Override
+			public double weigh(Node content) {
+				if (content instanceof DockNode) {
+					return ((DockNode) content).getLayoutWeight();
+				}
+				return 1;
+			}
+		});
+
+		root = new DockLayoutPane(layout, new Runnable() {
+			@Override
+			public void run() {
+				// selecting a tab changes the model like docking does
+				layoutChanged();
+			}
+		});
 		VBox.setVgrow(root, Priority.ALWAYS);
 		this.getChildren().add(root);
 
 		taskBar = new TaskBar();
 		this.getChildren().add(taskBar);
+
+		DockWindowRegistry.register(this);
 	}
 
 	/**
 	 * The Timeline used to animate the docking area indicator in the dock
-	 * indicator overlay for this dock pane.
+	 * indicator overlay. The overlay is shared by all dock panes so this is
+	 * the same Timeline for every dock pane. It is only played while the
+	 * docking area indicator is visible, use low power mode to disable it.
 	 *
 	 * @return The Timeline used to animate the docking area indicator in the
-	 *         dock indicator overlay for this dock pane.
+	 *         dock indicator overlay.
 	 */
 	public final Timeline getDockAreaStrokeTimeline() {
-		return dockAreaStrokeTimeline;
+		return DockIndicatorController.getInstance().getDockAreaStrokeTimeline();
+	}
+
+	/**
+	 * Whether the animations of DockFX, such as the border of the docking area
+	 * indicator, are disabled entirely.
+	 *
+	 * @return Whether the animations of DockFX are disabled.
+	 */
+	public final static boolean isLowPowerMode() {
+		return DockAnimations.isLowPowerMode();
+	}
+
+	/**
+	 * Disable or enable all animations of DockFX. Animations only ever run
+	 * while the node they animate is visible, in low power mode they do not
+	 * run at all.
+	 *
+	 * @param lowPowerMode
+	 *            Whether the animations of DockFX are disabled.
+	 */
+	public final static void setLowPowerMode(boolean lowPowerMode) {
+		DockAnimations.setLowPowerMode(lowPowerMode);
 	}
 
 	/**
@@ -328,51 +268,41 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 	 */
 	public final static void initializeDefaultUserAgentStylesheet() {
 		StyleManager.getInstance().addUserAgentStylesheet(DockPane.class.getResource("default.css").toExternalForm());
+		DockChromeMetrics.clear();
 	}
 
 	/**
-	 * A cache of all dock node event handlers that we have created for tracking
-	 * the current docking area.
+	 * Previously registered an event filter on the node to track when it is
+	 * dragged over. The dock node under the mouse is now found from the target
+	 * of the dock event itself so this no longer does anything.
+	 *
+	 * @param node
+	 *            The node that is being floated from this dock pane.
 	 */
-	private ObservableMap<Node, DockNodeEventHandler> dockNodeEventFilters = FXCollections.observableHashMap();
+	@Deprecated
+	public void floatNode(Node node) {
+	}
 
 	/**
-	 * A wrapper to the type parameterized generic EventHandler that allows us
-	 * to remove it from its listener when the dock node becomes detached. It is
-	 * specifically used to monitor which dock node in this dock pane's layout
-	 * we are currently dragging over.
+	 * Find the dock node of this dock pane that contains the target of a dock
+	 * event. Dock events are normally fired at the dock node itself but may be
+	 * fired at a node in its contents when the dragged title bar is picking
+	 * content.
 	 *
-	 * @since DockFX 0.1
+	 * @param target
+	 *            The target of the dock event.
+	 * @return The dock node containing the target or null if the target is
+	 *         not inside a dock node of this dock pane.
 	 */
-	private class DockNodeEventHandler implements EventHandler<DockEvent> {
-		/**
-		 * The node associated with this event handler that reports to the
-		 * encapsulating dock pane.
-		 */
-		private Node node = null;
-
-		/**
-		 * Creates a default dock node event handler that will help this dock
-		 * pane track the current docking area.
-		 *
-		 * @param node
-		 *            The node that is to listen for docking events and report
-		 *            to the encapsulating docking pane.
-		 */
-		public DockNodeEventHandler(Node node) {
-			this.node = node;
-		}
-
-		@Override
-		public void handle(DockEvent event) {
-			DockPane.this.dockNodeDrag = node;
+	private Node findDockNode(Object target) {
+		Node node = target instanceof Node ? (Node) target : null;
+		while (node != null && node != this) {
+			if (node instanceof DockNode) {
+				return node;
+			}
+			node = node.getParent();
 		}
-	}
-
-	public void floatNode(Node node) {
-		DockNodeEventHandler dockNodeEventHandler = new DockNodeEventHandler(node);
-		dockNodeEventFilters.put(node, dockNodeEventHandler);
-		node.addEventFilter(DockEvent.DOCK_OVER, dockNodeEventHandler);
+		return null;
 	}
 
 	/**
@@ -388,109 +318,12 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 	 *            The sibling of this node in the layout.
 	 */
 	public void dock(Node node, DockPos dockPos, Node sibling) {
-		DockNodeEventHandler dockNodeEventHandler = new DockNodeEventHandler(node);
-		dockNodeEventFilters.put(node, dockNodeEventHandler);
-		node.addEventFilter(DockEvent.DOCK_OVER, dockNodeEventHandler);
-
-		SplitPane split = (SplitPane) root;
-		if (split.getItems().size() == 0) {
-			split.getItems().add(node);
-			return;
-		}
-
-		// find the parent of the sibling
-		if (sibling != null && sibling != root) {
-			Stack<Parent> stack = new Stack<Parent>();
-			stack.push((Parent) root);
-			while (!stack.isEmpty()) {
-				Parent parent = stack.pop();
-
-				ObservableList<Node> children = parent.getChildrenUnmodifiable();
-
-				if (parent instanceof SplitPane) {
-					SplitPane splitPane = (SplitPane) parent;
-					children = splitPane.getItems();
-				}
-
-				for (int i = 0; i < children.size(); i++) {
-					if (children.get(i) == sibling) {
-						split = (SplitPane) parent;
-					} else if (children.get(i) instanceof Parent) {
-						stack.push((Parent) children.get(i));
-					}
-				}
-			}
-		}
-
-		Orientation requestedOrientation = (dockPos == DockPos.LEFT || dockPos == DockPos.RIGHT)
-				? Orientation.HORIZONTAL : Orientation.VERTICAL;
-
-		// if the orientation is different then reparent the split pane
-		if (split.getOrientation() != requestedOrientation) {
-			if (split.getItems().size() > 1) {
-				SplitPane splitPane = new SplitPane();
-				if (split == root && sibling == root) {
-					this.getChildren().set(this.getChildren().indexOf(root), splitPane);
-					splitPane.getItems().add(split);
-					root = splitPane;
-				} else {
-					split.getItems().set(split.getItems().indexOf(sibling), splitPane);
-					splitPane.getItems().add(sibling);
-				}
-
-				split = splitPane;
-			}
-			split.setOrientation(requestedOrientation);
-		}
-
-		// finally dock the node to the correct split pane
-		ObservableList<Node> splitItems = split.getItems();
-
-		double magnitude = 0;
-
-		if (splitItems.size() > 0) {
-			if (split.getOrientation() == Orientation.HORIZONTAL) {
-				for (Node splitItem : splitItems) {
-					magnitude += splitItem.prefWidth(0);
-				}
-			} else {
-				for (Node splitItem : splitItems) {
-					magnitude += splitItem.prefHeight(0);
-				}
-			}
-		}
-
-		if (dockPos == DockPos.LEFT || dockPos == DockPos.TOP) {
-			int relativeIndex = 0;
-			if (sibling != null && sibling != root) {
-				relativeIndex = splitItems.indexOf(sibling);
-			}
-
-			splitItems.add(relativeIndex, node);
-
-			if (splitItems.size() > 1) {
-				if (split.getOrientation() == Orientation.HORIZONTAL) {
-					split.setDividerPosition(relativeIndex, node.prefWidth(0) / (magnitude + node.prefWidth(0)));
-				} else {
-					split.setDividerPosition(relativeIndex, node.prefHeight(0) / (magnitude + node.prefHeight(0)));
-				}
-			}
-		} else if (dockPos == DockPos.RIGHT || dockPos == DockPos.BOTTOM) {
-			int relativeIndex = splitItems.size();
-			if (sibling != null && sibling != root) {
-				relativeIndex = splitItems.indexOf(sibling) + 1;
-			}
-
-			splitItems.add(relativeIndex, node);
-			if (splitItems.size() > 1) {
-				if (split.getOrientation() == Orientation.HORIZONTAL) {
-					split.setDividerPosition(relativeIndex - 1,
-							1 - node.prefWidth(0) / (magnitude + node.prefWidth(0)));
-				} else {
-					split.setDividerPosition(relativeIndex - 1,
-							1 - node.prefHeight(0) / (magnitude + node.prefHeight(0)));
-				}
-			}
+		beginBatch();
+		try {
+			layout.dock(node, dockPos, sibling != root ? sibling : null);
+			layoutChanged();
+		} finally {
+			commitBatch();
 		}
 	}
 
@@ -509,35 +342,65 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 	}
 
 	/**
-	 * Tiles passed nodes in this dock pane. All nodes are floated, then docked
-	 * and finally split pane dividers positions are set.
+	 * Dock the node into this dock pane at the place it was docked at before,
+	 * as remembered by {@link #getSlot(Node)}.
+	 *
+	 * @param node
+	 *            The node that is to be docked into this dock pane.
+	 * @param slot
+	 *            The place the node was docked at.
+	 */
+	void dock(Node node, DockLayout.Slot slot) {
+		beginBatch();
+		try {
+			layout.dock(node, slot);
+			layoutChanged();
+		} finally {
+			commitBatch();
+		}
+	}
+
+	/**
+	 * The place the node is docked at in the layout of this dock pane.
+	 *
+	 * @param node
+	 *            The docked node.
+	 * @return The place the node is docked at or null if it is not docked in
+	 *         this dock pane.
+	 */
+	DockLayout.Slot getSlot(Node node) {
+		return layout.getSlot(node);
+	}
+
+	/**
+	 * Tiles passed nodes in this dock pane. Nodes that are not docked in this
+	 * dock pane are docked first, then the layout is restructured so that the
+	 * nodes share the space equally. The layout is applied once and no node is
+	 * floated on the way.
 	 *
 	 * @param dockNodes
 	 *            Dock nodes to be tiled.
 	 * @param orientation
-	 *            Horizontal or Vertical orientation of tiling.
+	 *            Horizontal, vertical or grid orientation of tiling.
 	 */
 	public void tileNodes(List<DockNode> dockNodes, TileOrientation orientation) {
-		// first float everything
-		for (DockNode dockNode : dockNodes) {
-			if (dockNode.isFloatable()) {
-				dockNode.setFloating(true);
-			}
-		}
-		// dock everything
-		for (DockNode dockNode : dockNodes) {
-			if (dockNode.isFloatable() || !dockNode.isDocked()) {
-				if (orientation == TileOrientation.HORIZOTAL) {
+		beginBatch();
+		try {
+			for (DockNode dockNode : dockNodes) {
+				if (!layout.contains(dockNode)) {
 					dockNode.dock(this, DockPos.RIGHT);
-				} else {
-					dockNode.dock(this, DockPos.TOP);
 				}
 			}
-		}
-		SplitPane splitPane = (SplitPane) root;
-		// set split pane divider position
-		for (int i = 0; i < dockNodes.size() - 1; i++) {
-			splitPane.setDividerPosition(i, (float) (i + 1) / (dockNodes.size()));
+			if (orientation == TileOrientation.GRID) {
+				layout.tileGrid(dockNodes);
+			} else if (orientation == TileOrientation.HORIZOTAL) {
+				layout.tile(dockNodes, Orientation.HORIZONTAL);
+			} else {
+				layout.tile(dockNodes, Orientation.VERTICAL);
+			}
+			layoutChanged();
+		} finally {
+			commitBatch();
 		}
 	}
 
@@ -548,146 +411,90 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 	 *            The node that is to be removed from this dock pane.
 	 */
 	public void undock(DockNode node) {
-		DockNodeEventHandler dockNodeEventHandler = dockNodeEventFilters.get(node);
-		node.removeEventFilter(DockEvent.DOCK_OVER, dockNodeEventHandler);
-		dockNodeEventFilters.remove(node);
+		beginBatch();
+		try {
+			if (layout.undock(node)) {
+				layoutChanged();
+			}
+		} finally {
+			commitBatch();
+		}
+	}
 
-		// depth first search to find the parent of the node
-		Stack<Parent> findStack = new Stack<Parent>();
-		findStack.push((Parent) root);
-		while (!findStack.isEmpty()) {
-			Parent parent = findStack.pop();
+	/**
+	 * Begin a batch of layout changes. Docking and undocking nodes in this dock
+	 * pane only changes the model of the layout until the batch is committed,
+	 * at which point the docked nodes are laid out once for all the changes.
+	 * Batches can be nested, only the outermost commit applies the layout.
+	 */
+	public void beginBatch() {
+		batchDepth++;
+	}
 
-			ObservableList<Node> children = parent.getChildrenUnmodifiable();
+	/**
+	 * Commit a batch of layout changes begun with {@link #beginBatch()},
+	 * applying the layout if this is the outermost batch and the layout
+	 * changed during it.
+	 */
+	public void commitBatch() {
+		if (batchDepth > 0 && --batchDepth == 0 && layoutDirty) {
+			applyLayout();
+		}
+	}
 
-			if (parent instanceof SplitPane) {
-				SplitPane split = (SplitPane) parent;
-				children = split.getItems();
-			}
+	/**
+	 * Mark the model of the layout as changed, applying it right away unless a
+	 * batch is in progress, in which case it is applied when the batch is
+	 * committed.
+	 */
+	void layoutChanged() {
+		layoutDirty = true;
+		if (batchDepth == 0) {
+			applyLayout();
+		}
+	}
 
-			for (int i = 0; i < children.size(); i++) {
-				if (children.get(i) == node) {
-					children.remove(i);
-
-					// start from the root again and remove any SplitPane's with
-					// no children in them
-					Stack<Parent> clearStack = new Stack<Parent>();
-					clearStack.push((Parent) root);
-					while (!clearStack.isEmpty()) {
-						parent = clearStack.pop();
-
-						children = parent.getChildrenUnmodifiable();
-
-						if (parent instanceof SplitPane) {
-							SplitPane split = (SplitPane) parent;
-							children = split.getItems();
-						}
-
-						for (i = 0; i < children.size(); i++) {
-							if (children.get(i) instanceof SplitPane) {
-								SplitPane split = (SplitPane) children.get(i);
-								if (split.getItems().size() < 1) {
-									children.remove(i);
-									continue;
-								} else {
-									clearStack.push(split);
-								}
-							}
-
-						}
-					}
-
-					return;
-				} else if (children.get(i) instanceof Parent) {
-					findStack.push((Parent) children.get(i));
-				}
-			}
+	private void applyLayout() {
+		layoutDirty = false;
+		// keep the nesting of the splits shallow after every change
+		layout.normalize();
+		root.apply();
+	}
+
+	/**
+	 * Run the changes as a single batch of layout changes. This is the fastest
+	 * way to restore a layout of many dock nodes since the scene graph is only
+	 * updated once, when all of them have been docked.
+	 *
+	 * @param changes
+	 *            Docks and undocks nodes in this dock pane.
+	 */
+	public void batch(Runnable changes) {
+		beginBatch();
+		try {
+			changes.run();
+		} finally {
+			commitBatch();
 		}
 	}
 
 	@Override
 	public void handle(DockEvent event) {
+		DockIndicatorController dockIndicatorController = DockIndicatorController.getInstance();
 		if (event.getEventType() == DockEvent.DOCK_ENTER) {
-			if (!dockIndicatorOverlay.isShowing()) {
-				Point2D topLeft = DockPane.this.localToScreen(0, 0);
-				dockIndicatorOverlay.show(DockPane.this, topLeft.getX(), topLeft.getY());
-			}
+			dockIndicatorController.show(this);
 		} else if (event.getEventType() == DockEvent.DOCK_OVER) {
 			this.receivedEnter = false;
-			;
-
-			dockPosDrag = null;
-			dockAreaDrag = dockNodeDrag;
-
-			for (DockPosButton dockIndicatorButton : dockPosButtons) {
-				if (dockIndicatorButton
-						.contains(dockIndicatorButton.screenToLocal(event.getScreenX(), event.getScreenY()))) {
-					dockPosDrag = dockIndicatorButton.getDockPos();
-					if (dockIndicatorButton.isDockRoot()) {
-						dockAreaDrag = root;
-					}
-					dockIndicatorButton.pseudoClassStateChanged(PseudoClass.getPseudoClass("focused"), true);
-					break;
-				} else {
-					dockIndicatorButton.pseudoClassStateChanged(PseudoClass.getPseudoClass("focused"), false);
-				}
-			}
-
-			if (dockPosDrag != null && dockAreaDrag != null) {
-				Point2D originToScene = dockAreaDrag.localToScene(0, 0);
 
-				dockAreaIndicator.setVisible(true);
-				dockAreaIndicator.relocate(originToScene.getX(), originToScene.getY());
-				if (dockPosDrag == DockPos.RIGHT) {
-					dockAreaIndicator.setTranslateX(dockAreaDrag.getLayoutBounds().getWidth() / 2);
-				} else {
-					dockAreaIndicator.setTranslateX(0);
-				}
-
-				if (dockPosDrag == DockPos.BOTTOM) {
-					dockAreaIndicator.setTranslateY(dockAreaDrag.getLayoutBounds().getHeight() / 2);
-				} else {
-					dockAreaIndicator.setTranslateY(0);
-				}
-
-				if (dockPosDrag == DockPos.LEFT || dockPosDrag == DockPos.RIGHT) {
-					dockAreaIndicator.setWidth(dockAreaDrag.getLayoutBounds().getWidth() / 2);
-				} else {
-					dockAreaIndicator.setWidth(dockAreaDrag.getLayoutBounds().getWidth());
-				}
-				if (dockPosDrag == DockPos.TOP || dockPosDrag == DockPos.BOTTOM) {
-					dockAreaIndicator.setHeight(dockAreaDrag.getLayoutBounds().getHeight() / 2);
-				} else {
-					dockAreaIndicator.setHeight(dockAreaDrag.getLayoutBounds().getHeight());
-				}
-			} else {
-				dockAreaIndicator.setVisible(false);
-			}
-
-			if (dockNodeDrag != null) {
-				Point2D originToScreen = dockNodeDrag.localToScreen(0, 0);
-
-				double posX = originToScreen.getX() + dockNodeDrag.getLayoutBounds().getWidth() / 2
-						- dockPosIndicator.getWidth() / 2;
-				double posY = originToScreen.getY() + dockNodeDrag.getLayoutBounds().getHeight() / 2
-						- dockPosIndicator.getHeight() / 2;
-
-				if (!dockIndicatorPopup.isShowing()) {
-					dockIndicatorPopup.show(DockPane.this, posX, posY);
-				} else {
-					dockIndicatorPopup.setX(posX);
-					dockIndicatorPopup.setY(posY);
-				}
-
-				// set visible after moving the popup
-				dockPosIndicator.setVisible(true);
-			} else {
-				dockPosIndicator.setVisible(false);
-			}
+			// the controller only touches the indicators when the hovered
+			// button or the docking area changes
+			dockIndicatorController.over(dockNodeDrag, root, event.getScreenX(), event.getScreenY());
+			dockPosDrag = dockIndicatorController.getDockPos();
+			dockAreaDrag = dockIndicatorController.getDockArea();
 		}
 
 		if (event.getEventType() == DockEvent.DOCK_RELEASED && event.getContents() != null) {
-			if (dockPosDrag != null && dockIndicatorOverlay.isShowing()) {
+			if (dockPosDrag != null && dockIndicatorController.isShowing(this)) {
 				DockNode dockNode = (DockNode) event.getContents();
 				dockNode.dock(this, dockPosDrag, dockAreaDrag);
 			}
@@ -695,12 +502,7 @@ public class DockPane extends VBox implements EventHandler<DockEvent> {
 
 		if ((event.getEventType() == DockEvent.DOCK_EXIT && !this.receivedEnter)
 				|| event.getEventType() == DockEvent.DOCK_RELEASED) {
-			if (dockIndicatorPopup.isShowing()) {
-				dockIndicatorPopup.hide();
-			}
-			if (dockIndicatorOverlay.isShowing()) {
-				dockIndicatorOverlay.hide();
-			}
+			dockIndicatorController.hide(this);
 		}
 	}
 
@@ -27,8 +27,8 @@ package org.dockfx;
  */
 public enum DockPos {
   /**
-   * Dock to the center by stacking inside a TabPane. This should be considered the equivalent of
-   * null.
+   * Dock to the center by stacking in tabs. This should be considered the equivalent of null when
+   * there is no sibling to stack with.
    */
   CENTER,
 
@@ -0,0 +1,195 @@
+/**
+ * @file DockResizeSession.java
+ * @brief Class representing the state of a floating dock node being resized by its border.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import javafx.animation.AnimationTimer;
+import javafx.stage.Stage;
+
+/**
+ * The state of a floating dock node being resized by dragging its border. A dock node owns a single
+ * session that is reused for every resize. The mouse samples received during a pulse are
+ * accumulated into the offset from where the resize started and the stage bounds are changed at
+ * most once per pulse, all in the same pulse so that the window is moved and sized by a single
+ * native bounds change. The size is clamped against the minimum size of the stage read when the
+ * resize started.
+ *
+ * @since DockFX 0.2
+ */
+final class DockResizeSession {
+  /**
+   * The stage being resized, null when no resize is in progress.
+   */
+  private Stage stage;
+  /**
+   * The borders being dragged.
+   */
+  private boolean west, east, north, south;
+  /**
+   * The screen position of the mouse when the resize started.
+   */
+  private double startScreenX, startScreenY;
+  /**
+   * The bounds of the stage when the resize started.
+   */
+  private double startX, startY, startWidth, startHeight;
+  /**
+   * The minimum size of the stage when the resize started.
+   */
+  private double minWidth, minHeight;
+  /**
+   * The latest screen position of the mouse.
+   */
+  private double screenX, screenY;
+  /**
+   * Whether a mouse sample was received that has not been applied yet.
+   */
+  private boolean pending = false;
+  /**
+   * The timer that applies the latest mouse sample once per pulse.
+   */
+  private final AnimationTimer timer = new AnimationTimer() {
+    @Override
+    public void handle(long now) {
+      if (pending) {
+        apply();
+      }
+    }
+  };
+
+  /**
+   * Whether a resize is in progress.
+   *
+   * @return Whether a resize is in progress.
+   */
+  boolean isActive() {
+    return stage != null;
+  }
+
+  /**
+   * Start resizing the stage by dragging the borders.
+   *
+   * @param stage The stage to resize.
+   * @param west Whether the west border is dragged.
+   * @param east Whether the east border is dragged.
+   * @param north Whether the north border is dragged.
+   * @param south Whether the south border is dragged.
+   * @param screenX The x coordinate of the mouse in screen coordinates.
+   * @param screenY The y coordinate of the mouse in screen coordinates.
+   */
+  void begin(Stage stage, boolean west, boolean east, boolean north, boolean south,
+      double screenX, double screenY) {
+    end();
+
+    this.stage = stage;
+    this.west = west;
+    this.east = east;
+    this.north = north;
+    this.south = south;
+    this.startScreenX = this.screenX = screenX;
+    this.startScreenY = this.screenY = screenY;
+    this.startX = stage.getX();
+    this.startY = stage.getY();
+    this.startWidth = stage.getWidth();
+    this.startHeight = stage.getHeight();
+    this.minWidth = stage.getMinWidth();
+    this.minHeight = stage.getMinHeight();
+    timer.start();
+  }
+
+  /**
+   * Record the latest mouse sample to be applied on the next pulse.
+   *
+   * @param screenX The x coordinate of the mouse in screen coordinates.
+   * @param screenY The y coordinate of the mouse in screen coordinates.
+   */
+  void drag(double screenX, double screenY) {
+    if (!isActive()) {
+      return;
+    }
+    this.screenX = screenX;
+    this.screenY = screenY;
+    pending = true;
+  }
+
+  /**
+   * Apply the last mouse sample and end this session.
+   *
+   * @param screenX The x coordinate of the mouse in screen coordinates.
+   * @param screenY The y coordinate of the mouse in screen coordinates.
+   */
+  void release(double screenX, double screenY) {
+    drag(screenX, screenY);
+    if (pending) {
+      apply();
+    }
+    end();
+  }
+
+  /**
+   * Stop applying mouse samples.
+   */
+  void end() {
+    timer.stop();
+    pending = false;
+    stage = null;
+  }
+
+  /**
+   * Change the bounds of the stage to follow the latest mouse sample.
+   */
+  private void apply() {
+    pending = false;
+
+    double deltaX = screenX - startScreenX, deltaY = screenY - startScreenY;
+    double x = startX, y = startY, width = startWidth, height = startHeight;
+
+    // the dragged border follows the mouse until the minimum size is
+    // reached while the opposite border stays where it is
+    if (west) {
+      width = Math.max(minWidth, startWidth - deltaX);
+      x = startX + startWidth - width;
+    } else if (east) {
+      width = Math.max(minWidth, startWidth + deltaX);
+    }
+
+    if (north) {
+      height = Math.max(minHeight, startHeight - deltaY);
+      y = startY + startHeight - height;
+    } else if (south) {
+      height = Math.max(minHeight, startHeight + deltaY);
+    }
+
+    // the window applies all bounds changes made during a pulse at once
+    // so setting only the changed bounds here moves and sizes it in one go
+    if (x != stage.getX()) {
+      stage.setX(x);
+    }
+    if (y != stage.getY()) {
+      stage.setY(y);
+    }
+    if (width != stage.getWidth()) {
+      stage.setWidth(width);
+    }
+    if (height != stage.getHeight()) {
+      stage.setHeight(height);
+    }
+  }
+}
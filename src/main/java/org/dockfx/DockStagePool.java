@@ -0,0 +1,159 @@
+/**
+ * @file DockStagePool.java
+ * @brief Class pooling the stages used by floating dock nodes.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+
+/**
+ * Pool of the stages floating dock nodes are shown in. Every pooled stage comes with its scene and
+ * the border pane that is the root of the scene and parents the dock node. A stage can only be
+ * reused with the owner and style it was initialized with. Stages that stay idle for longer than
+ * {@link #IDLE_TIMEOUT} milliseconds are dropped from the pool.
+ *
+ * @since DockFX 0.2
+ */
+final class DockStagePool {
+  /**
+   * How long in milliseconds a stage may stay idle in the pool before it is dropped.
+   */
+  static final long IDLE_TIMEOUT = 30000;
+  /**
+   * The largest number of idle stages kept in the pool.
+   */
+  static final int MAX_IDLE = 4;
+
+  /**
+   * The idle stages from the least recently to the most recently released.
+   */
+  private static final List<Stage> idle = new ArrayList<Stage>();
+  /**
+   * The time each idle stage was released at, parallel to the idle stages.
+   */
+  private static final List<Long> releaseTimes = new ArrayList<Long>();
+  /**
+   * Schedules trimming the pool, created when the first stage is released.
+   */
+  private static Timer timer;
+
+  private DockStagePool() {}
+
+  /**
+   * Take an idle stage with the owner and style from the pool or create a new one. The root of the
+   * scene of the stage is an empty border pane.
+   *
+   * @param owner The owner of the stage, may be null.
+   * @param style The style of the stage.
+   * @return The stage, not showing yet.
+   */
+  static Stage acquire(Window owner, StageStyle style) {
+    for (int i = idle.size() - 1; i >= 0; i--) {
+      Stage stage = idle.get(i);
+      if (stage.getOwner() == owner && stage.getStyle() == style
+          && (owner == null || owner.isShowing())) {
+        idle.remove(i);
+        releaseTimes.remove(i);
+        return stage;
+      }
+    }
+
+    Stage stage = new Stage();
+    if (owner != null) {
+      stage.initOwner(owner);
+    }
+    stage.initStyle(style);
+
+    // the border pane allows the dock node to
+    // have a drop shadow effect on the border
+    // but also maintain the layout of contents
+    // such as a tab that has no content
+    BorderPane borderPane = new BorderPane();
+    borderPane.getStyleClass().add("dock-node-border");
+
+    Scene scene = new Scene(borderPane);
+    if (style == StageStyle.TRANSPARENT) {
+      scene.setFill(null);
+    }
+    stage.setScene(scene);
+    return stage;
+  }
+
+  /**
+   * Hide the stage and return it to the pool. The caller must have removed its own listeners and
+   * filters from the stage.
+   *
+   * @param stage The stage that was acquired from the pool.
+   */
+  static void release(Stage stage) {
+    stage.titleProperty().unbind();
+    stage.setMaximized(false);
+    stage.hide();
+    // the minimum size is only known once the next node is shown
+    stage.setMinWidth(0);
+    stage.setMinHeight(0);
+    ((BorderPane) stage.getScene().getRoot()).setCenter(null);
+
+    idle.add(stage);
+    releaseTimes.add(System.currentTimeMillis());
+    if (idle.size() > MAX_IDLE) {
+      idle.remove(0);
+      releaseTimes.remove(0);
+    }
+    scheduleTrim();
+  }
+
+  /**
+   * Drop the stages that have been idle for at least the idle timeout.
+   */
+  private static void trim() {
+    long now = System.currentTimeMillis();
+    while (!idle.isEmpty() && now - releaseTimes.get(0) >= IDLE_TIMEOUT) {
+      idle.remove(0);
+      releaseTimes.remove(0);
+    }
+  }
+
+  private static void scheduleTrim() {
+    if (timer == null) {
+      timer = new Timer("DockFX stage pool", true);
+    }
+    timer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        Platform.runLater(new Runnable() {
+          @Override
+          public void run() {
+            trim();
+          }
+        });
+      }
+    }, IDLE_TIMEOUT);
+  }
+}
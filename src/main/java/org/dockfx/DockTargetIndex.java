@@ -0,0 +1,329 @@
+/**
+ * @file DockTargetIndex.java
+ * @brief Class implementing a screen space index of dock event targets used while dragging.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+/**
+ * Screen space index of the dock panes and dock nodes that may receive dock events during a title
+ * bar drag. The index is built once when the drag is detected and rebuilt lazily only after the
+ * layout of an indexed node or the bounds of an indexed window have changed. Each window is divided
+ * into a uniform grid of cells so that picking the dock target under the mouse is a single cell
+ * lookup instead of a depth first traversal of every scene graph.
+ *
+ * @since DockFX 0.2
+ */
+final class DockTargetIndex {
+
+  /**
+   * The width and height of a grid cell in screen coordinates.
+   */
+  private static final double CELL_SIZE = 128;
+
+  /**
+   * A dock pane or dock node along with its cached screen bounds.
+   */
+  private static final class Target {
+    /**
+     * The dock pane or dock node that is the target of dock events.
+     */
+    private final Node node;
+    /**
+     * The number of dock targets this target is nested in.
+     */
+    private final int depth;
+    /**
+     * The bounds of the target in screen coordinates.
+     */
+    private final double minX, minY, maxX, maxY;
+
+    private Target(Node node, int depth, Bounds bounds) {
+      this.node = node;
+      this.depth = depth;
+      this.minX = bounds.getMinX();
+      this.minY = bounds.getMinY();
+      this.maxX = bounds.getMaxX();
+      this.maxY = bounds.getMaxY();
+    }
+
+    private boolean contains(double screenX, double screenY) {
+      return screenX >= minX && screenX < maxX && screenY >= minY && screenY < maxY;
+    }
+  }
+
+  /**
+   * The grid of dock targets for a single window.
+   */
+  private static final class WindowTargets {
+    /**
+     * The window the targets of this grid are shown in.
+     */
+    private final Window window;
+    /**
+     * The screen bounds of the window and the location of the first grid cell.
+     */
+    private final double originX, originY, width, height;
+    /**
+     * The dimensions of the grid in cells.
+     */
+    private final int columns, rows;
+    /**
+     * The targets overlapping each cell stored in row major order.
+     */
+    private final List<List<Target>> cells;
+
+    private WindowTargets(Window window) {
+      this.window = window;
+      this.originX = window.getX();
+      this.originY = window.getY();
+      this.width = window.getWidth();
+      this.height = window.getHeight();
+      this.columns = Math.max(1, (int) Math.ceil(window.getWidth() / CELL_SIZE));
+      this.rows = Math.max(1, (int) Math.ceil(window.getHeight() / CELL_SIZE));
+      this.cells = new ArrayList<List<Target>>(columns * rows);
+      for (int i = columns * rows; i > 0; i--) {
+        cells.add(new ArrayList<Target>(2));
+      }
+    }
+
+    private boolean covers(double screenX, double screenY) {
+      return screenX >= originX && screenX < originX + width && screenY >= originY
+          && screenY < originY + height;
+    }
+
+    private int column(double screenX) {
+      return (int) Math.floor((screenX - originX) / CELL_SIZE);
+    }
+
+    private int row(double screenY) {
+      return (int) Math.floor((screenY - originY) / CELL_SIZE);
+    }
+
+    private void add(Target target) {
+      int minColumn = Math.max(0, column(target.minX));
+      int maxColumn = Math.min(columns - 1, column(target.maxX));
+      int minRow = Math.max(0, row(target.minY));
+      int maxRow = Math.min(rows - 1, row(target.maxY));
+      for (int r = minRow; r <= maxRow; r++) {
+        for (int c = minColumn; c <= maxColumn; c++) {
+          cells.get(r * columns + c).add(target);
+        }
+      }
+    }
+
+    private Node pick(double screenX, double screenY) {
+      int c = column(screenX);
+      int r = row(screenY);
+      if (c < 0 || r < 0 || c >= columns || r >= rows) {
+        return null;
+      }
+      // the deepest target wins, when two targets at the same depth overlap
+      // the first one in the scene graph wins just like the traversal it replaces
+      Target picked = null;
+      List<Target> cell = cells.get(r * columns + c);
+      for (int i = 0; i < cell.size(); i++) {
+        Target target = cell.get(i);
+        if (target.contains(screenX, screenY) && (picked == null || target.depth > picked.depth)) {
+          picked = target;
+        }
+      }
+      return picked != null ? picked.node : null;
+    }
+  }
+
+  /**
+   * The window of the node being dragged which never receives its own dock events.
+   */
+  private final Window excludedWindow;
+  /**
+   * The node being dragged which is never a target of its own dock events.
+   */
+  private final Node excludedNode;
+  /**
+   * The windows that are considered when picking a dock target from the topmost to the bottommost.
+   */
+  private final List<Window> windows;
+  /**
+   * The grids of every showing window in the same order as the windows.
+   */
+  private final List<WindowTargets> windowTargets = new ArrayList<WindowTargets>();
+  /**
+   * The observables we are listening to for invalidating the index.
+   */
+  private final List<Observable> observed = new ArrayList<Observable>();
+  /**
+   * Whether the cached bounds are up to date.
+   */
+  private boolean valid = false;
+
+  /**
+   * Invalidates the index whenever a layout or window bounds change is observed.
+   */
+  private final InvalidationListener invalidationListener = new InvalidationListener() {
+    @Override
+    public void invalidated(Observable observable) {
+      valid = false;
+    }
+  };
+
+  /**
+   * Creates a new index of the dock targets in the given windows. The index is not built until it
+   * is first queried.
+   *
+   * @param windows The windows that may contain dock targets from the topmost to the bottommost.
+   * @param excludedWindow The window of the node being dragged, can be null.
+   * @param excludedNode The node being dragged, can be null.
+   */
+  DockTargetIndex(List<? extends Window> windows, Window excludedWindow, Node excludedNode) {
+    this.windows = new ArrayList<Window>(windows);
+    this.windows.remove(excludedWindow);
+    this.excludedWindow = excludedWindow;
+    this.excludedNode = excludedNode;
+  }
+
+  /**
+   * Pick the deepest dock pane or dock node under the location in the topmost window that contains
+   * the location. Windows are tested in the order they were given to the index, which must be from
+   * the topmost to the bottommost, and the windows below the first one containing the location are
+   * never tested.
+   *
+   * @param screenX The x coordinate of the location in screen coordinates.
+   * @param screenY The y coordinate of the location in screen coordinates.
+   * @return The dock target under the location or null if there is none.
+   */
+  Node pick(double screenX, double screenY) {
+    if (!valid) {
+      build();
+    }
+    for (int i = 0; i < windowTargets.size(); i++) {
+      WindowTargets targets = windowTargets.get(i);
+      if (targets.covers(screenX, screenY)) {
+        return targets.pick(screenX, screenY);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stop listening for changes to the indexed windows and nodes and release the cached bounds.
+   */
+  void dispose() {
+    for (Observable observable : observed) {
+      observable.removeListener(invalidationListener);
+    }
+    observed.clear();
+    windowTargets.clear();
+    valid = false;
+  }
+
+  private void observe(Observable observable) {
+    observable.addListener(invalidationListener);
+    observed.add(observable);
+  }
+
+  private void build() {
+    dispose();
+
+    for (Window window : windows) {
+      Scene scene = window.getScene();
+      if (window == excludedWindow || !window.isShowing() || scene == null
+          || scene.getRoot() == null) {
+        continue;
+      }
+
+      // reading the values validates the properties so they invalidate us again
+      observe(window.xProperty());
+      observe(window.yProperty());
+      observe(window.widthProperty());
+      observe(window.heightProperty());
+      WindowTargets targets = new WindowTargets(window);
+      windowTargets.add(targets);
+
+      List<Parent> nodes = new ArrayList<Parent>();
+      List<Integer> depths = new ArrayList<Integer>();
+      collect(scene.getRoot(), excludedNode, nodes, depths);
+      for (int i = 0; i < nodes.size(); i++) {
+        Parent parent = nodes.get(i);
+        observe(parent.layoutBoundsProperty());
+        observe(parent.localToSceneTransformProperty());
+        parent.getLocalToSceneTransform();
+
+        Bounds bounds = parent.localToScreen(parent.getLayoutBounds());
+        if (bounds != null) {
+          targets.add(new Target(parent, depths.get(i), bounds));
+        }
+      }
+    }
+
+    valid = true;
+  }
+
+  /**
+   * Collect the dock panes and dock nodes below the root in depth first order along with the number
+   * of dock targets each one is nested in. The contents of dock nodes are traversed too, so a dock
+   * pane nested in the contents of a dock node is a target that is deeper than the dock node. The
+   * node being dragged is skipped along with everything below it.
+   *
+   * @param root The root of the scene graph to traverse.
+   * @param excludedNode The node being dragged, can be null.
+   * @param targets The list the dock targets are added to.
+   * @param depths The list the depths of the dock targets are added to.
+   */
+  static void collect(Parent root, Node excludedNode, List<Parent> targets, List<Integer> depths) {
+    Stack<Parent> stack = new Stack<Parent>();
+    Stack<Integer> stackDepths = new Stack<Integer>();
+    stack.push(root);
+    stackDepths.push(0);
+    while (!stack.isEmpty()) {
+      Parent parent = stack.pop();
+      int depth = stackDepths.pop();
+
+      if (parent.isMouseTransparent() || !parent.isVisible() || parent == excludedNode) {
+        continue;
+      }
+
+      if (parent instanceof DockPane || parent instanceof DockNode) {
+        targets.add(parent);
+        depths.add(depth);
+        depth++;
+      }
+
+      List<Node> children = parent.getChildrenUnmodifiable();
+      // push in reverse so the first child is visited first
+      for (int i = children.size() - 1; i >= 0; i--) {
+        if (children.get(i) instanceof Parent) {
+          stack.push((Parent) children.get(i));
+          stackDepths.push(depth);
+        }
+      }
+    }
+  }
+}
@@ -20,23 +20,12 @@
 
 package org.dockfx;
 
-import java.util.HashMap;
-import java.util.Stack;
-
-import org.dockfx.events.DockEvent;
-
-import com.sun.javafx.stage.StageHelper;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.event.ActionEvent;
-import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.event.EventType;
-import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
-import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.input.MouseButton;
@@ -44,8 +33,6 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Priority;
-import javafx.stage.Stage;
-import javafx.stage.Window;
 
 /**
  * Base class for a dock node title bar that provides the mouse dragging functionality, captioning,
@@ -188,125 +175,101 @@ public class DockTitleBar extends HBox implements EventHandler<MouseEvent> {
   }
 
   /**
-   * The mouse location of the original click which we can use to determine the offset during drag.
-   * Title bar dragging is asynchronous so it will not be negatively impacted by less frequent or
-   * lagging mouse events as in the case of most current JavaFX implementations on Linux.
-   */
-  private Point2D dragStart;
-  /**
-   * Whether this title bar is currently being dragged.
-   */
-  private boolean dragging = false;
-  /**
-   * The current node being dragged over for each window so we can keep track of enter/exit events.
+   * Boolean property maintaining whether mouse drag events are coalesced so that the stage is
+   * moved and the dock events are fired at most once per pulse using only the latest mouse
+   * location. This must be set prior to the drag being detected.
+   *
+   * @defaultValue true
    */
-  private HashMap<Window, Node> dragNodes = new HashMap<Window, Node>();
+  public final BooleanProperty coalescingDragProperty() {
+    return coalescingDragProperty;
+  }
+
+  private BooleanProperty coalescingDragProperty = new SimpleBooleanProperty(true) {
+    @Override
+    public String getName() {
+      return "coalescingDrag";
+    }
+  };
+
+  public final boolean isCoalescingDrag() {
+    return coalescingDragProperty.get();
+  }
+
+  public final void setCoalescingDrag(boolean coalescingDrag) {
+    coalescingDragProperty.set(coalescingDrag);
+  }
 
   /**
-   * The task that is to be executed when the dock event target is picked. This provides context for
-   * what specific events and what order the events should be fired.
+   * Boolean property maintaining whether dock events are fired at the deepest node in the contents
+   * of the dock node under the mouse. By default they are fired directly at the dock node or dock
+   * pane under the mouse so the cost of a drag does not depend on the contents. This must be set
+   * prior to the drag being detected.
    *
-   * @since DockFX 0.1
+   * @defaultValue false
    */
-  private abstract class EventTask {
-    /**
-     * The number of times this task has been executed.
-     */
-    protected int executions = 0;
-
-    /**
-     * Creates a default DockTitleBar with captions and dragging behavior.
-     *
-     * @param node The node that was chosen as the event target.
-     * @param dragNode The node that was last event target.
-     */
-    public abstract void run(Node node, Node dragNode);
-
-    /**
-     * The number of times this task has been executed.
-     *
-     * @return The number of times this task has been executed.
-     */
-    public int getExecutions() {
-      return executions;
-    }
+  public final BooleanProperty contentPickingProperty() {
+    return contentPickingProperty;
+  }
 
-    /**
-     * Reset the execution count to zero.
-     */
-    public void reset() {
-      executions = 0;
+  private BooleanProperty contentPickingProperty = new SimpleBooleanProperty(false) {
+    @Override
+    public String getName() {
+      return "contentPicking";
     }
+  };
+
+  public final boolean isContentPicking() {
+    return contentPickingProperty.get();
+  }
+
+  public final void setContentPicking(boolean contentPicking) {
+    contentPickingProperty.set(contentPicking);
   }
 
   /**
-   * Traverse the scene graph for all open stages and pick an event target for a dock event based on
-   * the location. Once the event target is chosen run the event task with the target and the
-   * previous target of the last dock event if one is cached. If an event target is not found fire
-   * the explicit dock event on the stage root if one is provided.
+   * Boolean property maintaining whether a translucent outline follows the mouse during a drag
+   * instead of the floating stage. The dock node is only floated, moved or docked once when the
+   * mouse is released, which keeps dragging responsive when the contents are expensive to move
+   * or the window manager is slow to move windows. This must be set prior to the drag being
+   * detected.
    *
-   * @param location The location of the dock event in screen coordinates.
-   * @param eventTask The event task to be run when the event target is found.
-   * @param explicit The explicit event to be fired on the stage root when no event target is found.
+   * @defaultValue false
    */
-  private void pickEventTarget(Point2D location, EventTask eventTask, Event explicit) {
-    // RFE for public scene graph traversal API filed but closed:
-    // https://bugs.openjdk.java.net/browse/JDK-8133331
-    ObservableList<Stage> stages =
-        FXCollections.unmodifiableObservableList(StageHelper.getStages());
-    // fire the dock over event for the active stages
-    for (Stage targetStage : stages) {
-      // obviously this title bar does not need to receive its own events
-      // though users of this library may want to know when their
-      // dock node is being dragged by subclassing it or attaching
-      // an event listener in which case a new event can be defined or
-      // this continue behavior can be removed
-      if (targetStage == this.dockNode.getStage())
-        continue;
-
-      eventTask.reset();
-
-      Node dragNode = dragNodes.get(targetStage);
-
-      Parent root = targetStage.getScene().getRoot();
-      Stack<Parent> stack = new Stack<Parent>();
-      if (root.contains(root.screenToLocal(location.getX(), location.getY()))
-          && !root.isMouseTransparent()) {
-        stack.push(root);
-      }
-      // depth first traversal to find the deepest node or parent with no children
-      // that intersects the point of interest
-      while (!stack.isEmpty()) {
-        Parent parent = stack.pop();
-        // if this parent contains the mouse click in screen coordinates in its local bounds
-        // then traverse its children
-        boolean notFired = true;
-        for (Node node : parent.getChildrenUnmodifiable()) {
-          if (node.contains(node.screenToLocal(location.getX(), location.getY()))
-              && !node.isMouseTransparent()) {
-            if (node instanceof Parent) {
-              stack.push((Parent) node);
-            } else {
-              eventTask.run(node, dragNode);
-            }
-            notFired = false;
-            break;
-          }
-        }
-        // if none of the children fired the event or there were no children
-        // fire it with the parent as the target to receive the event
-        if (notFired) {
-          eventTask.run(parent, dragNode);
-        }
-      }
+  public final BooleanProperty outlineDragProperty() {
+    return outlineDragProperty;
+  }
 
-      if (explicit != null && dragNode != null && eventTask.getExecutions() < 1) {
-        Event.fireEvent(dragNode, explicit.copyFor(this, dragNode));
-        dragNodes.put(targetStage, null);
-      }
+  private BooleanProperty outlineDragProperty = new SimpleBooleanProperty(false) {
+    @Override
+    public String getName() {
+      return "outlineDrag";
     }
+  };
+
+  public final boolean isOutlineDrag() {
+    return outlineDragProperty.get();
+  }
+
+  public final void setOutlineDrag(boolean outlineDrag) {
+    outlineDragProperty.set(outlineDrag);
   }
 
+  /**
+   * The mouse location of the original click which we can use to determine the offset during drag.
+   * Title bar dragging is asynchronous so it will not be negatively impacted by less frequent or
+   * lagging mouse events as in the case of most current JavaFX implementations on Linux.
+   */
+  private Point2D dragStart;
+  /**
+   * Whether this title bar is currently being dragged.
+   */
+  private boolean dragging = false;
+  /**
+   * The drag session that is reused for every drag of this title bar.
+   */
+  private final DockDragSession dragSession = new DockDragSession(this);
+
   @Override
   public void handle(MouseEvent event) {
     if (event.getEventType() == MouseEvent.MOUSE_PRESSED) {
@@ -334,7 +297,9 @@ public class DockTitleBar extends HBox implements EventHandler<MouseEvent> {
   }
 
   private void handleDragDetected(MouseEvent event) {
-    if (!dockNode.isFloating()) {
+    // during an outline drag a docked node stays in the layout and keeps
+    // receiving its own drag events until the outline is dropped
+    if (!dockNode.isFloating() && !isOutlineDrag()) {
       // if we are not using a custom title bar and the user
       // is not forcing the default one for floating and
       // the dock node does have native window decorations
@@ -382,6 +347,11 @@ public class DockTitleBar extends HBox implements EventHandler<MouseEvent> {
       // scale the drag start location by our restored dimensions
       dragStart = new Point2D(ratioX * dockNode.getWidth(), ratioY * dockNode.getHeight());
     }
+
+    // the drop targets are only indexed once per drag, the index rebuilds
+    // itself when the layout or a window moves, and only the windows that
+    // host a dock pane are indexed
+    dragSession.begin(DockWindowRegistry.getWindows(), dragStart.getX(), dragStart.getY());
     dragging = true;
     event.consume();
   }
@@ -397,73 +367,15 @@ public class DockTitleBar extends HBox implements EventHandler<MouseEvent> {
     if (!dragging)
       return;
 
-    Stage stage = dockNode.getStage();
-    Insets insetsDelta = this.getDockNode().getBorderPane().getInsets();
-
-    // dragging this way makes the interface more responsive in the event
-    // the system is lagging as is the case with most current JavaFX
-    // implementations on Linux
-
-    stage.setX(event.getScreenX() - dragStart.getX() - insetsDelta.getLeft());
-    stage.setY(event.getScreenY() - dragStart.getY() - insetsDelta.getTop());
-
-    // TODO: change the pick result by adding a copyForPick()
-    DockEvent dockEnterEvent =
-        new DockEvent(this, DockEvent.NULL_SOURCE_TARGET, DockEvent.DOCK_ENTER, event.getX(),
-            event.getY(), event.getScreenX(), event.getScreenY(), null);
-    DockEvent dockOverEvent = new DockEvent(this, DockEvent.NULL_SOURCE_TARGET, DockEvent.DOCK_OVER,
-        event.getX(), event.getY(), event.getScreenX(), event.getScreenY(), null);
-    DockEvent dockExitEvent = new DockEvent(this, DockEvent.NULL_SOURCE_TARGET, DockEvent.DOCK_EXIT,
-        event.getX(), event.getY(), event.getScreenX(), event.getScreenY(), null);
-
-    EventTask eventTask = new EventTask() {
-      @Override
-      public void run(Node node, Node dragNode) {
-        executions++;
-
-        if (dragNode != node) {
-          Event.fireEvent(node, dockEnterEvent.copyFor(DockTitleBar.this, node));
-
-          if (dragNode != null) {
-            // fire the dock exit first so listeners
-            // can actually keep track of the node we
-            // are currently over and know when we
-            // aren't over any which DOCK_OVER
-            // does not provide
-            Event.fireEvent(dragNode, dockExitEvent.copyFor(DockTitleBar.this, dragNode));
-          }
-
-          dragNodes.put(node.getScene().getWindow(), node);
-        }
-        Event.fireEvent(node, dockOverEvent.copyFor(DockTitleBar.this, node));
-      }
-    };
-
-    this.pickEventTarget(new Point2D(event.getScreenX(), event.getScreenY()), eventTask,
-        dockExitEvent);
+    // the session only remembers the latest sample when coalescing and
+    // processes it once on the next pulse no matter how many events arrive
+    dragSession.drag(event.getX(), event.getY(), event.getScreenX(), event.getScreenY());
   }
 
   private void handleMouseReleased(MouseEvent event) {
     dragging = false;
 
-    DockEvent dockReleasedEvent =
-        new DockEvent(this, DockEvent.NULL_SOURCE_TARGET, DockEvent.DOCK_RELEASED, event.getX(),
-            event.getY(), event.getScreenX(), event.getScreenY(), null, this.getDockNode());
-
-    EventTask eventTask = new EventTask() {
-      @Override
-      public void run(Node node, Node dragNode) {
-        executions++;
-        if (dragNode != node) {
-          Event.fireEvent(node, dockReleasedEvent.copyFor(DockTitleBar.this, node));
-        }
-        Event.fireEvent(node, dockReleasedEvent.copyFor(DockTitleBar.this, node));
-      }
-    };
-
-    this.pickEventTarget(new Point2D(event.getScreenX(), event.getScreenY()), eventTask, null);
-
-    dragNodes.clear();
+    dragSession.release(event.getX(), event.getY(), event.getScreenX(), event.getScreenY());
 
     // Remove temporary event handler for bug mentioned above.
     DockPane dockPane = this.getDockNode().getDockPane();
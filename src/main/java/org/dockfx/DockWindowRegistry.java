@@ -0,0 +1,144 @@
+/**
+ * @file DockWindowRegistry.java
+ * @brief Class keeping track of the windows that host a dock pane.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+/**
+ * Registry of the windows that host at least one dock pane. Only these windows can accept a dock so
+ * they are the only windows considered while dragging a dock node, ordered from the most recently
+ * focused to the least recently focused window as an approximation of their z-order. Dock panes and
+ * windows are weakly referenced so the registry never keeps them alive.
+ *
+ * @since DockFX 0.2
+ */
+final class DockWindowRegistry {
+  /**
+   * All dock panes that have been created.
+   */
+  private static final Map<DockPane, Boolean> dockPanes = new WeakHashMap<DockPane, Boolean>();
+  /**
+   * The focus order of every window that has hosted a dock pane, higher is more recent.
+   */
+  private static final Map<Window, Long> focusOrder = new WeakHashMap<Window, Long>();
+  /**
+   * The next focus order to hand out.
+   */
+  private static long nextFocusOrder = 1;
+
+  /**
+   * Orders windows from the most recently focused to the least recently focused.
+   */
+  private static final Comparator<Window> MOST_RECENTLY_FOCUSED = new Comparator<Window>() {
+    @Override
+    public int compare(Window a, Window b) {
+      return Long.compare(focusOrder.get(b), focusOrder.get(a));
+    }
+  };
+
+  private DockWindowRegistry() {}
+
+  /**
+   * Register a dock pane so that the window it is shown in can accept docks.
+   *
+   * @param dockPane The dock pane to register.
+   */
+  static void register(DockPane dockPane) {
+    dockPanes.put(dockPane, Boolean.TRUE);
+
+    // start watching the focus of the window as soon as the dock pane is shown
+    // in it so the order is already known when the first drag starts
+    final ChangeListener<Window> windowListener = new ChangeListener<Window>() {
+      @Override
+      public void changed(ObservableValue<? extends Window> observable, Window oldValue,
+          Window newValue) {
+        track(newValue);
+      }
+    };
+    dockPane.sceneProperty().addListener(new ChangeListener<Scene>() {
+      @Override
+      public void changed(ObservableValue<? extends Scene> observable, Scene oldValue,
+          Scene newValue) {
+        if (oldValue != null) {
+          oldValue.windowProperty().removeListener(windowListener);
+        }
+        if (newValue != null) {
+          newValue.windowProperty().addListener(windowListener);
+          track(newValue.getWindow());
+        }
+      }
+    });
+  }
+
+  /**
+   * Start keeping track of the focus order of a window if we are not already.
+   *
+   * @param window The window that hosts a dock pane, can be null.
+   */
+  private static void track(final Window window) {
+    if (window == null || focusOrder.containsKey(window)) {
+      return;
+    }
+    // windows that were never focused while we watched are behind all others
+    // except the one that currently has focus
+    focusOrder.put(window, window.isFocused() ? nextFocusOrder++ : 0L);
+    window.focusedProperty().addListener(new ChangeListener<Boolean>() {
+      @Override
+      public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue,
+          Boolean newValue) {
+        if (newValue) {
+          focusOrder.put(window, nextFocusOrder++);
+        }
+      }
+    });
+  }
+
+  /**
+   * The showing windows that host a registered dock pane ordered from the most recently focused to
+   * the least recently focused.
+   *
+   * @return The windows that can accept a dock.
+   */
+  static List<Window> getWindows() {
+    List<Window> windows = new ArrayList<Window>();
+    for (DockPane dockPane : dockPanes.keySet()) {
+      Scene scene = dockPane.getScene();
+      Window window = scene != null ? scene.getWindow() : null;
+      if (window == null || !window.isShowing() || windows.contains(window)) {
+        continue;
+      }
+      track(window);
+      windows.add(window);
+    }
+    Collections.sort(windows, MOST_RECENTLY_FOCUSED);
+    return windows;
+  }
+}
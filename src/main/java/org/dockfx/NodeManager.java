@@ -25,14 +25,24 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.dockfx.events.DockNodeEvent;
 import org.dockfx.events.DockNodeEventListener;
 import org.dockfx.events.DockNodeEventListenerInterface;
 import org.dockfx.viewControllers.DockFXViewController;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.stage.Window;
 
@@ -68,6 +78,47 @@ public class NodeManager {
 	 */
 	private DockPane dockPane;
 
+	/**
+	 * Forgets the cached FXML files at the provided paths so that they are read
+	 * again when the next dock node is created from them. Files on the file
+	 * system are read again by themselves once they are modified.
+	 *
+	 * @param fxmlPaths
+	 *            paths to fxml files.
+	 */
+	public void invalidateFXML(String... fxmlPaths) {
+		for (String fxmlPath : fxmlPaths) {
+			DockFXMLCache.invalidate(fxmlPath);
+		}
+	}
+
+	/**
+	 * Forgets all cached FXML files.
+	 */
+	public void clearFXMLCache() {
+		DockFXMLCache.clear();
+	}
+
+	/**
+	 * Executor the contents of asynchronously created nodes are constructed
+	 * on. Created on first use when none has been set.
+	 */
+	private Executor executor;
+
+	/**
+	 * Executor running tasks on the JavaFX application thread.
+	 */
+	private static final Executor FX_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			if (Platform.isFxApplicationThread()) {
+				command.run();
+			} else {
+				Platform.runLater(command);
+			}
+		}
+	};
+
 	/**
 	 * Creates dock manager. Applies key listener for cascading/tiling
 	 * shortcuts. Scene that DockPane will be added to is required for listening
@@ -137,6 +188,43 @@ public class NodeManager {
 		return getDockNode(contents, null, null);
 	}
 
+	/**
+	 * Creates dockNode whose contents are only created the first time it is
+	 * shown, dockNode creation documented in
+	 * {@link org.dockfx.DockNode#DockNode(Supplier, String, Node)}
+	 *
+	 * @param contentsSupplier
+	 *            Creates the contents of the dock node.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @param graphic
+	 *            The caption graphic of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @return DockNode instance
+	 */
+	public DockNode getDockNode(Supplier<Node> contentsSupplier, String title, Node graphic) {
+		DockNode dockNode = new DockNode(contentsSupplier, title, graphic);
+		handleNodeCreated(dockNode);
+		return dockNode;
+	}
+
+	/**
+	 * Creates dockNode whose contents are only created the first time it is
+	 * shown, dockNode creation documented in
+	 * {@link org.dockfx.DockNode#DockNode(Supplier, String, Node)}
+	 *
+	 * @param contentsSupplier
+	 *            Creates the contents of the dock node.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @return DockNode instance
+	 */
+	public DockNode getDockNode(Supplier<Node> contentsSupplier, String title) {
+		return getDockNode(contentsSupplier, title, null);
+	}
+
 	/**
 	 * Creates dockNode, dockNode creation documented in documented in
 	 * {@link org.dockfx.DockNode}
@@ -188,6 +276,180 @@ public class NodeManager {
 		return dockNode;
 	}
 
+	/**
+	 * Creates dockNode asynchronously. The contents are constructed by the
+	 * supplier on the executor of this manager and only the dock node itself
+	 * is created on the JavaFX application thread, so constructing heavy
+	 * contents does not block the user interface. The supplier must not
+	 * attach the contents to a scene.
+	 *
+	 * @param contentsSupplier
+	 *            Constructs the contents of the dock node.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @param graphic
+	 *            The caption graphic of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @return Future completed on the JavaFX application thread with the
+	 *         DockNode instance
+	 */
+	public CompletableFuture<DockNode> getDockNodeAsync(Supplier<Node> contentsSupplier, final String title,
+			final Node graphic) {
+		return CompletableFuture.supplyAsync(contentsSupplier, getExecutor())
+				.thenApplyAsync(new Function<Node, DockNode>() {
+					@Override
+					public DockNode apply(Node contents) {
+						return getDockNode(contents, title, graphic);
+					}
+				}, FX_EXECUTOR);
+	}
+
+	/**
+	 * Creates dockNode asynchronously, see
+	 * {@link #getDockNodeAsync(Supplier, String, Node)}.
+	 *
+	 * @param contentsSupplier
+	 *            Constructs the contents of the dock node.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @return Future completed on the JavaFX application thread with the
+	 *         DockNode instance
+	 */
+	public CompletableFuture<DockNode> getDockNodeAsync(Supplier<Node> contentsSupplier, String title) {
+		return getDockNodeAsync(contentsSupplier, title, null);
+	}
+
+	/**
+	 * Creates dockNode asynchronously with contents loaded from FXMLFile at
+	 * provided path. The FXML file and its controller are loaded on the
+	 * executor of this manager and only the dock node itself is created on
+	 * the JavaFX application thread.
+	 *
+	 * @param fxmlPath
+	 *            path to fxml file.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @param graphic
+	 *            The caption graphic of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @return Future completed on the JavaFX application thread with the
+	 *         DockNode instance
+	 */
+	public CompletableFuture<DockNode> getDockNodeAsync(final String fxmlPath, final String title,
+			final Node graphic) {
+		return CompletableFuture.supplyAsync(new Supplier<FXMLLoader>() {
+			@Override
+			public FXMLLoader get() {
+				return DockNode.loadNode(fxmlPath);
+			}
+		}, getExecutor()).thenApplyAsync(new Function<FXMLLoader, DockNode>() {
+			@Override
+			public DockNode apply(FXMLLoader loader) {
+				// the same set up as a dock node created from the fxml file
+				// on the application thread
+				DockNode dockNode = new DockNode(loader, title, graphic);
+				handleNodeCreated(dockNode);
+				return dockNode;
+			}
+		}, FX_EXECUTOR);
+	}
+
+	/**
+	 * Creates dockNode asynchronously with contents loaded from FXMLFile at
+	 * provided path, see {@link #getDockNodeAsync(String, String, Node)}.
+	 *
+	 * @param fxmlPath
+	 *            path to fxml file.
+	 * @param title
+	 *            The caption title of this dock node which maintains
+	 *            bidirectional state with the title bar and stage.
+	 * @return Future completed on the JavaFX application thread with the
+	 *         DockNode instance
+	 */
+	public CompletableFuture<DockNode> getDockNodeAsync(String fxmlPath, String title) {
+		return getDockNodeAsync(fxmlPath, title, null);
+	}
+
+	/**
+	 * Reads the FXML files at the provided paths into the FXML cache and loads
+	 * the classes they refer to on the executor of this manager, so that
+	 * creating the first dock nodes from them does not have to read the files
+	 * or load these classes. Nothing is instantiated and no class is
+	 * initialized, so no view controller runs.
+	 *
+	 * @param fxmlPaths
+	 *            paths to fxml files.
+	 * @return Future completed once the classes of all files have been
+	 *         loaded, or completed exceptionally with the failure of the first
+	 *         file that could not be read
+	 */
+	public CompletableFuture<Void> prewarmFXML(final String... fxmlPaths) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				CompletionException failure = null;
+				for (String fxmlPath : fxmlPaths) {
+					try {
+						DockFXMLPrewarmer.prewarm(fxmlPath);
+					} catch (Exception e) {
+						// the remaining files are still prewarmed
+						if (failure == null) {
+							failure = new CompletionException(e);
+						} else {
+							failure.addSuppressed(e);
+						}
+					}
+				}
+				if (failure != null) {
+					throw failure;
+				}
+			}
+		}, getExecutor());
+	}
+
+	/**
+	 * Executor the contents of asynchronously created nodes are constructed
+	 * on. Unless one has been set this is a virtual thread per task executor
+	 * when the runtime provides one and a pool of daemon threads otherwise.
+	 *
+	 * @return Executor the contents are constructed on
+	 */
+	public Executor getExecutor() {
+		if (executor == null) {
+			executor = createDefaultExecutor();
+		}
+		return executor;
+	}
+
+	/**
+	 * Sets the executor the contents of asynchronously created nodes are
+	 * constructed on.
+	 *
+	 * @param executor
+	 *            Executor the contents are constructed on
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	private static Executor createDefaultExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "DockFX content loader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+
 	/**
 	 * Adds new dock node to managed nodes list. Adds event listeners to node.
 	 * Listens for close event and keyboard events.
@@ -317,7 +579,7 @@ public class NodeManager {
 		Window dockPaneWidndow = dockPane.getScene().getWindow();
 		int i = 1;
 		for (DockNode dockNode : nodesToCascade) {
-			if (dockNode.hasParent() && dockNode.isFloatable()) {
+			if (isTileable(dockNode) && dockNode.isFloatable()) {
 				dockNode.setFloating(true);
 				dockNode.getStage().setWidth(Math.max(dockNode.getPrefWidth(), dockNode.getContents().prefWidth(0)));
 				dockNode.getStage().setHeight(Math.max(dockNode.getPrefHeight(), dockNode.getContents().prefHeight(0)));
@@ -344,21 +606,35 @@ public class NodeManager {
 	}
 
 	/**
-	 * Returns subset of managed nodes that can be tiled For example node that
-	 * does not have parent therefore is not in scene graph cannot be tiled.
+	 * Tiles all nodes in a balanced grid.
+	 */
+	public void tileGrid() {
+		dockPane.tileNodes(getTileableNodes(), TileOrientation.GRID);
+	}
+
+	/**
+	 * Returns subset of managed nodes that can be tiled. Nodes that are docked
+	 * or floating can be tiled, including docked nodes behind an unselected
+	 * tab which are not in the scene graph. Tiling gives each of them its own
+	 * place in the layout. Closed or minimized nodes cannot be tiled.
 	 *
 	 * @return List of nodes that can be tiled.
 	 */
 	public List<DockNode> getTileableNodes() {
 		List<DockNode> tileableNodes = new LinkedList<>();
 		for (DockNode dockNode : dockNodes) {
-			if (dockNode.hasParent() && !dockNode.isMinimized()) {
+			if (isTileable(dockNode)) {
 				tileableNodes.add(dockNode);
 			}
 		}
 		return tileableNodes;
 	}
 
+	private boolean isTileable(DockNode dockNode) {
+		// a docked node behind an unselected tab is still docked
+		return (dockNode.isDocked() || dockNode.isFloating()) && !dockNode.isMinimized();
+	}
+
 	/**
 	 * Returns list of all managed nodes
 	 *
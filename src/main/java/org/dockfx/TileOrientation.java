@@ -35,6 +35,11 @@ public enum TileOrientation {
   /**
    * Tile vertically
    */
-  VERTICAL
+  VERTICAL,
+
+  /**
+   * Tile in a balanced grid
+   */
+  GRID
 
 }
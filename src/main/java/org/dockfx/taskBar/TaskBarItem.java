@@ -49,7 +49,7 @@ public class TaskBarItem extends HBox {
   Label label;
 
   /**
-   * Hides this TaskBarItem and restores the DockNode to floating state
+   * Hides this TaskBarItem and restores the DockNode to where it was minimized from
    */
   Button button;
 
@@ -0,0 +1,98 @@
+/**
+ * @file DockTargetIndexTest.java
+ * @brief Tests of the drop targets collected by the drop target index.
+ *
+ * @section License
+ *
+ *          This file is a part of the DockFX Library. Copyright (C) 2015 Robert B. Colton
+ *
+ *          This program is free software: you can redistribute it and/or modify it under the terms
+ *          of the GNU Lesser General Public License as published by the Free Software Foundation,
+ *          either version 3 of the License, or (at your option) any later version.
+ *
+ *          This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ *          WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ *          PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ *          You should have received a copy of the GNU Lesser General Public License along with this
+ *          program. If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package org.dockfx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.javafx.application.PlatformImpl;
+
+import javafx.scene.Parent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+
+/**
+ * Tests of the dock panes and dock nodes the drop target index collects from a scene graph.
+ *
+ * @since DockFX 0.2
+ */
+public class DockTargetIndexTest {
+
+  @BeforeClass
+  public static void startToolkit() {
+    // the controls of dock nodes need the toolkit, which needs a display
+    try {
+      PlatformImpl.startup(new Runnable() {
+        @Override
+        public void run() {}
+      });
+    } catch (IllegalStateException e) {
+      // already started
+    } catch (Throwable e) {
+      Assume.assumeNoException(e);
+    }
+  }
+
+  @Test
+  public void collectsDockPaneNestedInDockNode() {
+    DockPane outer = new DockPane();
+    DockPane inner = new DockPane();
+    DockNode host = new DockNode(new StackPane(inner), "Host");
+    host.dock(outer, DockPos.CENTER);
+    DockNode nested = new DockNode(new Pane(), "Nested");
+    nested.dock(inner, DockPos.CENTER);
+
+    List<Parent> targets = new ArrayList<Parent>();
+    List<Integer> depths = new ArrayList<Integer>();
+    DockTargetIndex.collect(outer, null, targets, depths);
+
+    assertEquals(4, targets.size());
+    int hostDepth = depths.get(targets.indexOf(host));
+    int innerDepth = depths.get(targets.indexOf(inner));
+    int nestedDepth = depths.get(targets.indexOf(nested));
+    assertEquals(0, (int) depths.get(targets.indexOf(outer)));
+    assertTrue(innerDepth > hostDepth);
+    assertTrue(nestedDepth > innerDepth);
+  }
+
+  @Test
+  public void skipsTheDraggedNodeAndItsContents() {
+    DockPane outer = new DockPane();
+    DockPane inner = new DockPane();
+    DockNode host = new DockNode(new StackPane(inner), "Host");
+    host.dock(outer, DockPos.CENTER);
+
+    List<Parent> targets = new ArrayList<Parent>();
+    List<Integer> depths = new ArrayList<Integer>();
+    DockTargetIndex.collect(outer, host, targets, depths);
+
+    assertEquals(1, targets.size());
+    assertFalse(targets.contains(inner));
+  }
+}